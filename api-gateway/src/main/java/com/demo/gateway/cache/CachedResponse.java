@@ -0,0 +1,63 @@
+package com.demo.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Immutable downstream response held by the gateway response cache. Large
+ * compressible bodies also keep a gzip copy, so cache hits are served
+ * compressed without recompressing them on every request.
+ */
+public final class CachedResponse {
+
+    private final HttpStatusCode status;
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final byte[] gzipBody;
+    private final long expiresAtNanos;
+
+    public CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, long expiresAtNanos) {
+        this(status, headers, body, null, expiresAtNanos);
+    }
+
+    public CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, byte[] gzipBody,
+                          long expiresAtNanos) {
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.gzipBody = gzipBody;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /**
+     * Same response with a pre-compressed copy of the body
+     */
+    public CachedResponse withGzipBody(byte[] gzipBody) {
+        return new CachedResponse(status, headers, body, gzipBody, expiresAtNanos);
+    }
+
+    public boolean isExpired(long nowNanos) {
+        return nowNanos - expiresAtNanos >= 0;
+    }
+
+    // Approximate heap footprint, used for size-based eviction
+    public long weight() {
+        return body.length + (gzipBody != null ? gzipBody.length : 0) + 256L;
+    }
+
+    public HttpStatusCode getStatus() {
+        return status;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public byte[] getGzipBody() {
+        return gzipBody;
+    }
+}
@@ -0,0 +1,302 @@
+package com.demo.gateway.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-memory cache of downstream responses, keyed by route and key
+ * (the path variable of the route, e.g. a product id, plus the raw query if any).
+ *
+ * Entries expire after the route's TTL and the least recently used entries are
+ * evicted once the entry count or total size limit is exceeded. Backend
+ * services can invalidate a whole route or a single key when data changes.
+ *
+ * Entries are spread over segments, each with its own lock and its own share of
+ * the limits, so concurrent hits on different keys rarely wait for each other.
+ */
+@Component
+public class ResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    private static final int SEGMENTS = 16;
+
+    private final ResponseCacheProperties properties;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    // Only routes with a configured TTL get stats, so unknown route names cannot grow this map
+    private final Map<String, RouteStats> stats = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ResponseCache(ResponseCacheProperties properties) {
+        this.properties = properties;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Whether responses of this route are cached at all
+     */
+    public boolean isCacheable(String route) {
+        return properties.isEnabled() && !properties.ttlFor(route).isZero();
+    }
+
+    public CachedResponse get(String route, String key) {
+        RouteStats routeStats = statsFor(route);
+        if (routeStats == null) {
+            return null;
+        }
+        String cacheKey = cacheKey(route, key);
+        Segment segment = segmentFor(cacheKey);
+        CachedResponse cached;
+        boolean expired = false;
+        synchronized (segment) {
+            cached = segment.entries.get(cacheKey);
+            if (cached != null && cached.isExpired(System.nanoTime())) {
+                segment.remove(cacheKey);
+                cached = null;
+                expired = true;
+            }
+        }
+
+        if (expired) {
+            routeStats.expirations.increment();
+        }
+        if (cached != null) {
+            routeStats.hits.increment();
+        } else {
+            routeStats.misses.increment();
+        }
+        return cached;
+    }
+
+    /**
+     * Current invalidation generation of a route. Capture it before fetching from
+     * the backend and pass it to put(), so a response fetched before an
+     * invalidation is never stored after it.
+     */
+    public long generation(String route) {
+        RouteStats routeStats = statsFor(route);
+        return routeStats != null ? routeStats.generation.get() : 0;
+    }
+
+    public CachedResponse put(String route, String key, CachedResponse response, long generation) {
+        RouteStats routeStats = statsFor(route);
+        if (routeStats == null) {
+            return response;
+        }
+        String cacheKey = cacheKey(route, key);
+        Segment segment = segmentFor(cacheKey);
+        long maxEntries = Math.max(1, (properties.getMaxEntries() + SEGMENTS - 1) / SEGMENTS);
+        long maxBytes = properties.getMaxSize().toBytes() / SEGMENTS;
+        int evicted = 0;
+        synchronized (segment) {
+            // Invalidations bump the generation before they take the segment locks
+            if (routeStats.generation.get() != generation) {
+                return response;
+            }
+            segment.put(cacheKey, response);
+
+            Iterator<Map.Entry<String, CachedResponse>> eldest = segment.entries.entrySet().iterator();
+            while ((segment.entries.size() > maxEntries || segment.weight > maxBytes) && eldest.hasNext()) {
+                Map.Entry<String, CachedResponse> entry = eldest.next();
+                String evictedKey = entry.getKey();
+                segment.weight -= entry.getValue().weight();
+                eldest.remove();
+                segment.unindex(evictedKey);
+                RouteStats evictedStats = stats.get(routeOf(evictedKey));
+                if (evictedStats != null) {
+                    evictedStats.evictions.increment();
+                }
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            logger.debug("Response cache evicted {} entries to stay within limits", evicted);
+        }
+        return response;
+    }
+
+    /**
+     * Compute the expiry (in System.nanoTime() terms) for a response of this route stored now
+     */
+    public long expiryFor(String route) {
+        Duration ttl = properties.ttlFor(route);
+        return System.nanoTime() + ttl.toNanos();
+    }
+
+    public int invalidate(String route) {
+        RouteStats routeStats = statsFor(route);
+        if (routeStats == null) {
+            return 0;
+        }
+        routeStats.generation.incrementAndGet();
+        String prefix = route + "|";
+        int removed = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                Iterator<Map.Entry<String, CachedResponse>> iterator = segment.entries.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, CachedResponse> entry = iterator.next();
+                    if (entry.getKey().startsWith(prefix)) {
+                        segment.weight -= entry.getValue().weight();
+                        iterator.remove();
+                        segment.unindex(entry.getKey());
+                        removed++;
+                    }
+                }
+            }
+        }
+        routeStats.invalidations.add(removed);
+        logger.info("CACHE_INVALIDATE: route={}, removed={}", route, removed);
+        return removed;
+    }
+
+    /**
+     * Drop the entry of a key together with every query variant of it (key?page=2...)
+     */
+    public int invalidate(String route, String key) {
+        RouteStats routeStats = statsFor(route);
+        if (routeStats == null) {
+            return 0;
+        }
+        routeStats.generation.incrementAndGet();
+        String baseKey = cacheKey(route, key);
+        int removed = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                Set<String> variants = segment.variants.get(baseKey);
+                if (variants != null) {
+                    for (String cacheKey : variants.toArray(new String[0])) {
+                        segment.remove(cacheKey);
+                        removed++;
+                    }
+                }
+            }
+        }
+        routeStats.invalidations.add(removed);
+        logger.info("CACHE_INVALIDATE: route={}, key={}, removed={}", route, key, removed);
+        return removed;
+    }
+
+    public Map<String, Object> snapshot() {
+        int entryCount = 0;
+        long totalWeight = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                entryCount += segment.entries.size();
+                totalWeight += segment.weight;
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("entries", entryCount);
+        result.put("sizeBytes", totalWeight);
+        result.put("maxEntries", properties.getMaxEntries());
+        result.put("maxSizeBytes", properties.getMaxSize().toBytes());
+
+        Map<String, Object> routes = new LinkedHashMap<>();
+        stats.forEach((route, routeStats) -> {
+            long hits = routeStats.hits.sum();
+            long misses = routeStats.misses.sum();
+            Map<String, Object> counters = new LinkedHashMap<>();
+            counters.put("ttlMs", properties.ttlFor(route).toMillis());
+            counters.put("hits", hits);
+            counters.put("misses", misses);
+            counters.put("hitRatio", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+            counters.put("evictions", routeStats.evictions.sum());
+            counters.put("expirations", routeStats.expirations.sum());
+            counters.put("invalidations", routeStats.invalidations.sum());
+            routes.put(route, counters);
+        });
+        result.put("routes", routes);
+        return result;
+    }
+
+    private RouteStats statsFor(String route) {
+        if (!properties.getTtl().containsKey(route)) {
+            return null;
+        }
+        return stats.computeIfAbsent(route, name -> new RouteStats());
+    }
+
+    private Segment segmentFor(String cacheKey) {
+        int hash = cacheKey.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static String cacheKey(String route, String key) {
+        return route + "|" + key;
+    }
+
+    private static String routeOf(String cacheKey) {
+        return cacheKey.substring(0, cacheKey.indexOf('|'));
+    }
+
+    // Cache key without the raw query, which the caller appends after '?'
+    private static String baseKeyOf(String cacheKey) {
+        int query = cacheKey.indexOf('?');
+        return query < 0 ? cacheKey : cacheKey.substring(0, query);
+    }
+
+    /**
+     * One lock's worth of entries; every field is guarded by the segment itself
+     */
+    private static class Segment {
+        // Access-ordered so iteration starts at the least recently used entry
+        private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(64, 0.75f, true);
+        // Cache keys by base key, so a key is invalidated together with its query variants
+        private final Map<String, Set<String>> variants = new HashMap<>();
+        private long weight;
+
+        void put(String cacheKey, CachedResponse response) {
+            CachedResponse previous = entries.put(cacheKey, response);
+            if (previous != null) {
+                weight -= previous.weight();
+            } else {
+                variants.computeIfAbsent(baseKeyOf(cacheKey), base -> new HashSet<>()).add(cacheKey);
+            }
+            weight += response.weight();
+        }
+
+        void remove(String cacheKey) {
+            CachedResponse removed = entries.remove(cacheKey);
+            if (removed != null) {
+                weight -= removed.weight();
+                unindex(cacheKey);
+            }
+        }
+
+        // Call after taking the entry out of entries
+        void unindex(String cacheKey) {
+            String baseKey = baseKeyOf(cacheKey);
+            Set<String> keys = variants.get(baseKey);
+            if (keys != null && keys.remove(cacheKey) && keys.isEmpty()) {
+                variants.remove(baseKey);
+            }
+        }
+    }
+
+    private static class RouteStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder expirations = new LongAdder();
+        private final LongAdder invalidations = new LongAdder();
+        private final AtomicLong generation = new AtomicLong();
+    }
+}
@@ -0,0 +1,76 @@
+package com.demo.gateway.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the gateway response cache (gateway.cache.*)
+ */
+@Component
+@ConfigurationProperties("gateway.cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    // Size-based eviction: least recently used entries go first once either limit is hit
+    private int maxEntries = 10_000;
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    // Time-to-live per cached route, e.g. gateway.cache.ttl.product-list=30s
+    private Map<String, Duration> ttl = new HashMap<>();
+
+    // Shared secret backend services send as X-Cache-Token to invalidate entries;
+    // unset means only unproxied callers on this host may invalidate
+    private String invalidationToken;
+
+    public Duration ttlFor(String route) {
+        return ttl.getOrDefault(route, Duration.ZERO);
+    }
+
+    // Getters and Setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Map<String, Duration> getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Map<String, Duration> ttl) {
+        this.ttl = ttl;
+    }
+
+    public String getInvalidationToken() {
+        return invalidationToken;
+    }
+
+    public void setInvalidationToken(String invalidationToken) {
+        this.invalidationToken = invalidationToken;
+    }
+}
@@ -0,0 +1,142 @@
+package com.demo.gateway.config;
+
+import reactor.netty.http.HttpProtocol;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and timeout settings for one downstream service.
+ * Bound from gateway.pool.{product|cart|order}.* in application.properties
+ */
+public class DownstreamPoolProperties {
+
+    // Maximum number of open connections to the service
+    private int maxConnections = 100;
+
+    // Requests allowed to wait for a free connection before failing fast
+    private int pendingAcquireMaxCount = 1000;
+
+    // How long a request may wait for a free connection
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+    // Idle connections are closed after this long
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    // Connections are recycled after this long, even if busy
+    private Duration maxLifeTime = Duration.ofMinutes(10);
+
+    // Interval of the background idle-eviction sweep
+    private Duration evictInBackground = Duration.ofSeconds(30);
+
+    private boolean keepAlive = true;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    private Duration responseTimeout = Duration.ofSeconds(10);
+
+    // http11, or h2c for cleartext HTTP/2 with prior knowledge (the service must accept h2c)
+    private HttpProtocol protocol = HttpProtocol.HTTP11;
+
+    // h2c only: concurrent requests (streams) multiplexed on one connection,
+    // and connections kept open so streams are spread over more than one socket
+    private int maxConcurrentStreams = 100;
+    private int minConnections = 1;
+
+    // Getters and Setters
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getPendingAcquireMaxCount() {
+        return pendingAcquireMaxCount;
+    }
+
+    public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+        this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+    }
+
+    public Duration getPendingAcquireTimeout() {
+        return pendingAcquireTimeout;
+    }
+
+    public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+        this.pendingAcquireTimeout = pendingAcquireTimeout;
+    }
+
+    public Duration getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    public void setMaxIdleTime(Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    public Duration getMaxLifeTime() {
+        return maxLifeTime;
+    }
+
+    public void setMaxLifeTime(Duration maxLifeTime) {
+        this.maxLifeTime = maxLifeTime;
+    }
+
+    public Duration getEvictInBackground() {
+        return evictInBackground;
+    }
+
+    public void setEvictInBackground(Duration evictInBackground) {
+        this.evictInBackground = evictInBackground;
+    }
+
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getResponseTimeout() {
+        return responseTimeout;
+    }
+
+    public void setResponseTimeout(Duration responseTimeout) {
+        this.responseTimeout = responseTimeout;
+    }
+
+    public HttpProtocol getProtocol() {
+        return protocol;
+    }
+
+    public void setProtocol(HttpProtocol protocol) {
+        this.protocol = protocol;
+    }
+
+    public int getMaxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+
+    public void setMaxConcurrentStreams(int maxConcurrentStreams) {
+        this.maxConcurrentStreams = maxConcurrentStreams;
+    }
+
+    public int getMinConnections() {
+        return minConnections;
+    }
+
+    public void setMinConnections(int minConnections) {
+        this.minConnections = minConnections;
+    }
+}
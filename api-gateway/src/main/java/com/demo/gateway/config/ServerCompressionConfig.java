@@ -0,0 +1,33 @@
+package com.demo.gateway.config;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.util.function.BiPredicate;
+
+@Configuration
+public class ServerCompressionConfig {
+
+    /**
+     * Keeps server.compression away from responses that carry an ETag. Netty gzips
+     * on the fly without touching the ETag, so a backend's strong validator (e.g. the
+     * user order history) would otherwise cover two different byte sequences. Cached
+     * catalog responses already come with a gzip variant under its own ETag.
+     */
+    @Bean
+    public NettyServerCustomizer skipCompressionWithETag() {
+        // Applied after Spring Boot's compression customizer, so this narrows its mime-type and size checks
+        return httpServer -> {
+            BiPredicate<HttpServerRequest, HttpServerResponse> compress = httpServer.configuration().compressPredicate();
+            if (compress == null) {
+                return httpServer;
+            }
+            return httpServer.compress(compress.and(
+                    (request, response) -> !response.responseHeaders().contains(HttpHeaderNames.ETAG)));
+        };
+    }
+}
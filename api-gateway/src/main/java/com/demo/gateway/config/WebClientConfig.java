@@ -1,23 +1,206 @@
 package com.demo.gateway.config;
 
+import com.demo.gateway.metrics.LatencyHistograms;
+import com.demo.gateway.metrics.PoolMetricsRegistry;
+import com.demo.gateway.proxy.Deadlines;
+import com.demo.gateway.proxy.MirrorProperties;
+import com.demo.gateway.resilience.AdaptiveConcurrencyLimiter;
+import com.demo.gateway.resilience.DownstreamResilience;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.codec.ClientCodecConfigurer;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Configuration
 public class WebClientConfig {
 
+    // Reactor context key holding the nanoTime at which an exchange was subscribed
+    private static final String EXCHANGE_START = "gateway.exchangeStart";
+
+    private final List<ConnectionProvider> connectionProviders = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private LatencyHistograms latencyHistograms;
+
+    // Only applies to responses the gateway aggregates (e.g. checkout);
+    // pass-through routes stream DataBuffers and never buffer the whole body
+    @Value("${gateway.proxy.max-in-memory-size:2MB}")
+    private DataSize maxInMemorySize;
+
     @Bean
     public WebClient.Builder webClientBuilder() {
-        // Increase buffer size to handle large responses (default is 256KB)
         ExchangeStrategies strategies = ExchangeStrategies.builder()
-                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(50 * 1024 * 1024)) // 50MB
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize((int) maxInMemorySize.toBytes()))
                 .build();
-        
+
         return WebClient.builder()
                 .exchangeStrategies(strategies);
     }
-}
 
+    // Per-downstream pool settings (gateway.pool.*)
+
+    @Bean
+    @ConfigurationProperties("gateway.pool.product")
+    public DownstreamPoolProperties productPoolProperties() {
+        return new DownstreamPoolProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("gateway.pool.cart")
+    public DownstreamPoolProperties cartPoolProperties() {
+        return new DownstreamPoolProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("gateway.pool.order")
+    public DownstreamPoolProperties orderPoolProperties() {
+        return new DownstreamPoolProperties();
+    }
+
+    // One long-lived client per downstream, each with its own connection pool
+
+    @Bean
+    public WebClient productWebClient(@Value("${services.product.url}") String productServiceUrl,
+                                      @Qualifier("productPoolProperties") DownstreamPoolProperties pool,
+                                      PoolMetricsRegistry poolMetrics,
+                                      DownstreamResilience resilience,
+                                      AdaptiveConcurrencyLimiter limiter) {
+        return buildClient("product", productServiceUrl, pool, poolMetrics, resilience, limiter);
+    }
+
+    @Bean
+    public WebClient cartWebClient(@Value("${services.cart.url}") String cartServiceUrl,
+                                   @Qualifier("cartPoolProperties") DownstreamPoolProperties pool,
+                                   PoolMetricsRegistry poolMetrics,
+                                   DownstreamResilience resilience,
+                                   AdaptiveConcurrencyLimiter limiter) {
+        return buildClient("cart", cartServiceUrl, pool, poolMetrics, resilience, limiter);
+    }
+
+    @Bean
+    public WebClient orderWebClient(@Value("${services.order.url}") String orderServiceUrl,
+                                    @Qualifier("orderPoolProperties") DownstreamPoolProperties pool,
+                                    PoolMetricsRegistry poolMetrics,
+                                    DownstreamResilience resilience,
+                                    AdaptiveConcurrencyLimiter limiter) {
+        return buildClient("order", orderServiceUrl, pool, poolMetrics, resilience, limiter);
+    }
+
+    // Shadow traffic to candidate builds (see TrafficMirror): a separate pool without the primary
+    // filters, so a slow or failing candidate never holds primary connections or trips breakers
+
+    @Bean
+    public WebClient mirrorWebClient(MirrorProperties mirror) {
+        ConnectionProvider provider = ConnectionProvider.builder("mirror")
+                .maxConnections(mirror.getMaxConnections())
+                .pendingAcquireMaxCount(mirror.getMaxInFlight())
+                .build();
+        connectionProviders.add(provider);
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .responseTimeout(mirror.getTimeout());
+        return webClientBuilder().clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    private WebClient buildClient(String name, String baseUrl, DownstreamPoolProperties pool,
+                                  PoolMetricsRegistry poolMetrics, DownstreamResilience resilience,
+                                  AdaptiveConcurrencyLimiter limiter) {
+        boolean h2c = pool.getProtocol() == HttpProtocol.H2C;
+        ConnectionProvider.Builder providerBuilder = ConnectionProvider.builder(name)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictInBackground())
+                .metrics(true, () -> poolMetrics);
+        if (h2c) {
+            // Multiplexed: a connection is only added once every open one carries max-concurrent-streams requests
+            providerBuilder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .minConnections(pool.getMinConnections())
+                    .maxConnections(pool.getMaxConnections())
+                    .maxConcurrentStreams(pool.getMaxConcurrentStreams())
+                    .build());
+        }
+        ConnectionProvider provider = providerBuilder.build();
+        connectionProviders.add(provider);
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .protocol(pool.getProtocol())
+                .keepAlive(pool.isKeepAlive())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis())
+                .responseTimeout(pool.getResponseTimeout())
+                .doOnRequest((request, connection) -> {
+                    // Time between subscribing and having a connection ready = acquire wait (+ connect for new sockets)
+                    Long start = request.currentContextView().getOrDefault(EXCHANGE_START, null);
+                    if (start != null) {
+                        poolMetrics.recordAcquire(name, System.nanoTime() - start);
+                    }
+                });
+
+        return webClientBuilder().clone()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                // Outermost: stamp the remaining deadline (504 without a call once it has passed),
+                // shed load above the adaptive concurrency limit, then
+                // circuit breaker + bulkhead reject before a connection is even requested
+                .filter(Deadlines.filter(name, pool.getResponseTimeout()))
+                .filter(limiter.filterFor(name))
+                .filter(resilience.filterFor(name))
+                .filter(upstreamTiming(name))
+                .filter((request, next) -> next.exchange(request)
+                        .contextWrite(context -> context.put(EXCHANGE_START, System.nanoTime())))
+                .build();
+    }
+
+    /**
+     * Backend time per route and downstream status, from handing the request to the pool to
+     * receiving the response headers; also reported to the caller for gateway-overhead accounting
+     */
+    private ExchangeFilterFunction upstreamTiming(String service) {
+        return (request, next) -> {
+            String route = (String) request.attribute(LatencyHistograms.ROUTE_ATTRIBUTE).orElse("unrouted");
+            AtomicLong upstreamTime = (AtomicLong) request.attribute(LatencyHistograms.UPSTREAM_TIME_ATTRIBUTE).orElse(null);
+            long start = System.nanoTime();
+            return next.exchange(request)
+                    .doOnNext(response -> {
+                        long elapsed = System.nanoTime() - start;
+                        latencyHistograms.recordUpstream(route, service, response.statusCode().value(), elapsed);
+                        if (upstreamTime != null) {
+                            upstreamTime.addAndGet(elapsed);
+                        }
+                    })
+                    .doOnError(ex -> {
+                        long elapsed = System.nanoTime() - start;
+                        latencyHistograms.recordUpstream(route, service, LatencyHistograms.NO_STATUS, elapsed);
+                        if (upstreamTime != null) {
+                            upstreamTime.addAndGet(elapsed);
+                        }
+                    });
+        };
+    }
+
+    @PreDestroy
+    public void disposeConnectionProviders() {
+        connectionProviders.forEach(ConnectionProvider::dispose);
+    }
+}
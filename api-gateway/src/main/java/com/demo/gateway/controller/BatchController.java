@@ -0,0 +1,334 @@
+package com.demo.gateway.controller;
+
+import com.demo.gateway.dto.BatchRequest;
+import com.demo.gateway.dto.CheckoutRequest;
+import com.demo.gateway.proxy.Deadlines;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Many API calls in one round trip, for clients that pay a high latency per
+ * request (mobile). Each sub-request goes through the same pipeline as a
+ * direct call (route table with rate limits, cache, retries and deadlines, or
+ * the checkout handler), so results match what the client would get calling
+ * one by one.
+ *
+ * Sub-requests without dependsOn all start at once; a sub-request with
+ * dependsOn starts once those have completed, and is answered 424 without
+ * being sent if one of them did not succeed. The batch itself is always 200;
+ * each result carries its own status, headers (X-Order-Id etc.) and body.
+ */
+@RestController
+@RequestMapping("/api/batch")
+public class BatchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchController.class);
+
+    // Taken from the batch request when a sub-request does not set them
+    private static final Set<String> INHERITED_HEADERS = Set.of("x-session-id", "x-journey-id");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private RoutedProxyController routedProxyController;
+
+    @Autowired
+    private GatewayController gatewayController;
+
+    @Value("${gateway.batch.max-requests:20}")
+    private int maxRequests;
+
+    @Value("${gateway.batch.sub-request-timeout:10s}")
+    private Duration subRequestTimeout;
+
+    @PostMapping
+    public Mono<ResponseEntity<byte[]>> batch(@RequestBody List<BatchRequest> requests,
+                                              @RequestHeader HttpHeaders batchHeaders) {
+        Map<String, BatchRequest> byId = new LinkedHashMap<>();
+        String invalid = index(requests, byId);
+        if (invalid != null) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(errorBody(HttpStatus.BAD_REQUEST, invalid)));
+        }
+
+        // One deadline for the whole batch; each sub-request is sent with what is left of it
+        Long deadline = Deadlines.of(batchHeaders.getFirst(Deadlines.HEADER), null);
+        Map<String, Mono<Result>> scheduled = new LinkedHashMap<>();
+        List<Mono<Result>> executions = new ArrayList<>();
+        for (String id : byId.keySet()) {
+            executions.add(schedule(id, byId, scheduled, batchHeaders, deadline));
+        }
+
+        // Subscribed eagerly (all independent sub-requests run concurrently), emitted in request order
+        return Flux.mergeSequential(executions)
+                .collectList()
+                .map(results -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(render(results)));
+    }
+
+    /**
+     * Assign ids and check the batch; returns an error message, or null if it is valid
+     */
+    private String index(List<BatchRequest> requests, Map<String, BatchRequest> byId) {
+        if (requests == null || requests.isEmpty()) {
+            return "Batch is empty";
+        }
+        if (requests.size() > maxRequests) {
+            return "Batch has " + requests.size() + " requests, at most " + maxRequests + " are allowed";
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            BatchRequest request = requests.get(i);
+            String id = request.getId() != null ? request.getId() : Integer.toString(i);
+            request.setId(id);
+            if (byId.putIfAbsent(id, request) != null) {
+                return "Duplicate request id " + id;
+            }
+            if (request.getPath() == null || !request.getPath().startsWith("/api/") || request.getPath().startsWith("/api/batch")) {
+                return "Request " + id + " must have a path under /api/ (batches cannot be nested)";
+            }
+            if (request.getMethod() == null || request.getMethod().isBlank()) {
+                return "Request " + id + " has no method";
+            }
+        }
+        for (BatchRequest request : byId.values()) {
+            for (String dependency : dependencies(request)) {
+                if (!byId.containsKey(dependency)) {
+                    return "Request " + request.getId() + " depends on unknown request " + dependency;
+                }
+            }
+        }
+        Set<String> done = new HashSet<>();
+        for (String id : byId.keySet()) {
+            if (hasCycle(id, byId, new HashSet<>(), done)) {
+                return "Request " + id + " is part of a dependency cycle";
+            }
+        }
+        return null;
+    }
+
+    private boolean hasCycle(String id, Map<String, BatchRequest> byId, Set<String> visiting, Set<String> done) {
+        if (done.contains(id)) {
+            return false;
+        }
+        if (!visiting.add(id)) {
+            return true;
+        }
+        for (String dependency : dependencies(byId.get(id))) {
+            if (hasCycle(dependency, byId, visiting, done)) {
+                return true;
+            }
+        }
+        visiting.remove(id);
+        done.add(id);
+        return false;
+    }
+
+    /**
+     * Build the (cached) execution of a sub-request after those of its dependencies
+     */
+    private Mono<Result> schedule(String id, Map<String, BatchRequest> byId, Map<String, Mono<Result>> scheduled,
+                                  HttpHeaders batchHeaders, Long deadline) {
+        Mono<Result> existing = scheduled.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        BatchRequest request = byId.get(id);
+        List<Mono<Result>> dependencies = new ArrayList<>();
+        for (String dependency : dependencies(request)) {
+            dependencies.add(schedule(dependency, byId, scheduled, batchHeaders, deadline));
+        }
+
+        Mono<Result> execution = dependencies.isEmpty()
+                ? execute(request, batchHeaders, deadline)
+                : Flux.merge(dependencies)
+                        .filter(result -> result.status < 200 || result.status >= 300)
+                        .next()
+                        .map(failed -> error(id, HttpStatus.FAILED_DEPENDENCY,
+                                "Request " + failed.id + " did not succeed"))
+                        .switchIfEmpty(Mono.defer(() -> execute(request, batchHeaders, deadline)));
+        Mono<Result> cached = execution.cache();
+        scheduled.put(id, cached);
+        return cached;
+    }
+
+    private Mono<Result> execute(BatchRequest request, HttpHeaders batchHeaders, Long deadline) {
+        String id = request.getId();
+        HttpMethod method = HttpMethod.valueOf(request.getMethod().toUpperCase());
+        String rawPath = request.getPath();
+        int queryStart = rawPath.indexOf('?');
+        String path = queryStart < 0 ? rawPath : rawPath.substring(0, queryStart);
+        String query = queryStart < 0 ? null : rawPath.substring(queryStart + 1);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (request.getHeaders() != null) {
+            request.getHeaders().forEach(headers::set);
+        }
+        batchHeaders.forEach((name, values) -> {
+            if (INHERITED_HEADERS.contains(name.toLowerCase()) && !headers.containsKey(name)) {
+                headers.put(name, values);
+            }
+        });
+        if (deadline != null) {
+            headers.set(Deadlines.HEADER, Long.toString(Deadlines.remaining(deadline).toMillis()));
+        }
+        // Sub-responses are embedded in the JSON document; the batch response as a whole may be compressed
+        headers.remove(HttpHeaders.ACCEPT_ENCODING);
+
+        // The timeout covers reading the body too: a streamed response can send its headers and then stall
+        return Mono.defer(() -> call(method, path, query, headers, request))
+                .flatMap(response -> drain(id, response))
+                .timeout(subRequestTimeout)
+                .onErrorResume(ex -> {
+                    logger.warn("Batch sub-request failed - id={}, method={}, path={}, error={}", id, method, rawPath, ex.toString());
+                    HttpStatus status = ex instanceof TimeoutException ? HttpStatus.GATEWAY_TIMEOUT
+                            : ex instanceof IOException ? HttpStatus.BAD_REQUEST : HttpStatus.BAD_GATEWAY;
+                    return Mono.just(error(id, status, ex.getClass().getSimpleName()));
+                });
+    }
+
+    private Mono<ResponseEntity<Flux<DataBuffer>>> call(HttpMethod method, String path, String query,
+                                                        HttpHeaders headers, BatchRequest request) {
+        boolean hasBody = request.getBody() != null && !request.getBody().isNull();
+        try {
+            // Checkout has its own handler (APM revenue data collection) rather than a route table entry
+            if (method == HttpMethod.POST && path.equals("/api/orders/checkout")) {
+                if (!hasBody) {
+                    throw new JsonMappingException(null, "Checkout requires a body");
+                }
+                CheckoutRequest checkout = objectMapper.treeToValue(request.getBody(), CheckoutRequest.class);
+                return gatewayController.checkout(checkout, headers.getFirst("X-Session-ID"),
+                        headers.getFirst("X-Journey-ID"), headers.getFirst(Deadlines.HEADER));
+            }
+            byte[] body = hasBody ? objectMapper.writeValueAsBytes(request.getBody()) : null;
+            return routedProxyController.forward(method, path, query, headers::getFirst, body);
+        } catch (IOException e) {
+            return Mono.error(e);
+        }
+    }
+
+    /**
+     * Read a streamed sub-response into memory, releasing its buffers
+     */
+    private static Mono<Result> drain(String id, ResponseEntity<Flux<DataBuffer>> response) {
+        Flux<DataBuffer> body = response.getBody() != null ? response.getBody() : Flux.empty();
+        return DataBufferUtils.join(body)
+                .map(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .map(bytes -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.putAll(response.getHeaders());
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    return new Result(id, response.getStatusCode().value(), headers, bytes);
+                });
+    }
+
+    /**
+     * Splice JSON sub-response bodies into the batch document as-is, other bodies as strings
+     */
+    private byte[] render(List<Result> results) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write("{\"responses\":[".getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < results.size(); i++) {
+                Result result = results.get(i);
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write("{\"id\":".getBytes(StandardCharsets.UTF_8));
+                out.write(objectMapper.writeValueAsBytes(result.id));
+                out.write((",\"status\":" + result.status + ",\"headers\":").getBytes(StandardCharsets.UTF_8));
+                out.write(objectMapper.writeValueAsBytes(result.headers.toSingleValueMap()));
+                out.write(",\"body\":".getBytes(StandardCharsets.UTF_8));
+                MediaType contentType = result.headers.getContentType();
+                if (result.body.length == 0) {
+                    out.write("null".getBytes(StandardCharsets.UTF_8));
+                } else if (contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+                    out.write(result.body);
+                } else {
+                    out.write(objectMapper.writeValueAsBytes(new String(result.body, StandardCharsets.UTF_8)));
+                }
+                out.write('}');
+            }
+            out.write("]}".getBytes(StandardCharsets.UTF_8));
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to render batch response", e);
+        }
+    }
+
+    private Result error(String id, HttpStatus status, String message) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new Result(id, status.value(), headers, errorBody(status, message));
+    }
+
+    /**
+     * Messages quote client-supplied request ids, so Jackson escapes them
+     */
+    private byte[] errorBody(HttpStatus status, String message) {
+        Map<String, String> error = new LinkedHashMap<>();
+        error.put("error", status.getReasonPhrase());
+        error.put("message", message);
+        try {
+            return objectMapper.writeValueAsBytes(error);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render error response", e);
+        }
+    }
+
+    private static List<String> dependencies(BatchRequest request) {
+        return request.getDependsOn() != null ? request.getDependsOn() : List.of();
+    }
+
+    private static final class Result {
+        private final String id;
+        private final int status;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        private Result(String id, int status, HttpHeaders headers, byte[] body) {
+            this.id = id;
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.demo.gateway.controller;
+
+import com.demo.gateway.cache.ResponseCache;
+import com.demo.gateway.cache.ResponseCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Explicit invalidation of the gateway response cache.
+ * Called by backend services (e.g. product-service) after they change data.
+ *
+ * These endpoints share the client-facing port, so callers must present the
+ * configured gateway.cache.invalidation-token as X-Cache-Token. Without a token
+ * configured, only direct (unproxied) callers on this host are accepted.
+ */
+@RestController
+@RequestMapping("/api/gateway/cache")
+public class GatewayCacheController {
+
+    static final String TOKEN_HEADER = "X-Cache-Token";
+
+    private static final Logger logger = LoggerFactory.getLogger(GatewayCacheController.class);
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private ResponseCacheProperties properties;
+
+    // Drop every cached response of a route, e.g. DELETE /api/gateway/cache/product-list
+    @DeleteMapping("/{route}")
+    public ResponseEntity<Map<String, Object>> invalidateRoute(@PathVariable String route, ServerHttpRequest request) {
+        if (!isInternal(request)) {
+            return forbidden(request);
+        }
+        int removed = responseCache.invalidate(route);
+        return ResponseEntity.ok(result(route, null, removed));
+    }
+
+    // Drop a single cached response and its query variants, e.g. DELETE /api/gateway/cache/product-detail/3
+    @DeleteMapping("/{route}/{key}")
+    public ResponseEntity<Map<String, Object>> invalidateKey(@PathVariable String route, @PathVariable String key,
+                                                             ServerHttpRequest request) {
+        if (!isInternal(request)) {
+            return forbidden(request);
+        }
+        int removed = responseCache.invalidate(route, key);
+        return ResponseEntity.ok(result(route, key, removed));
+    }
+
+    private boolean isInternal(ServerHttpRequest request) {
+        String token = properties.getInvalidationToken();
+        if (StringUtils.hasText(token)) {
+            String presented = request.getHeaders().getFirst(TOKEN_HEADER);
+            // Constant-time comparison, so response times do not reveal the token
+            return presented != null && MessageDigest.isEqual(
+                    token.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8));
+        }
+        // A local reverse proxy would make every client look like loopback
+        HttpHeaders headers = request.getHeaders();
+        if (headers.containsKey("Forwarded") || headers.containsKey("X-Forwarded-For")) {
+            return false;
+        }
+        InetSocketAddress remote = request.getRemoteAddress();
+        return remote != null && remote.getAddress() != null && remote.getAddress().isLoopbackAddress();
+    }
+
+    private static ResponseEntity<Map<String, Object>> forbidden(ServerHttpRequest request) {
+        logger.warn("CACHE_INVALIDATE_DENIED: path={}, remote={}", request.getPath().value(), request.getRemoteAddress());
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", HttpStatus.FORBIDDEN.getReasonPhrase());
+        response.put("message", "Cache invalidation is restricted to backend services");
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+    }
+
+    private static Map<String, Object> result(String route, String key, int removed) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("route", route);
+        if (key != null) {
+            response.put("key", key);
+        }
+        response.put("removed", removed);
+        return response;
+    }
+}
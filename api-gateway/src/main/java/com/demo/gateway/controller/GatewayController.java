@@ -1,193 +1,62 @@
 package com.demo.gateway.controller;
 
 import com.demo.gateway.dto.CheckoutRequest;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.demo.gateway.metrics.LatencyHistograms;
+import com.demo.gateway.metrics.RevenueEvent;
+import com.demo.gateway.metrics.RevenueEventPublisher;
+import com.demo.gateway.proxy.Deadlines;
+import com.demo.gateway.proxy.StreamingProxy;
+import com.demo.gateway.resilience.Priority;
+import com.demo.gateway.resilience.PriorityScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
 @RequestMapping("/api")
 public class GatewayController {
 
     private static final Logger logger = LoggerFactory.getLogger(GatewayController.class);
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    @Autowired
-    private WebClient.Builder webClientBuilder;
-
-    @Value("${services.product.url}")
-    private String productServiceUrl;
-
-    @Value("${services.cart.url}")
-    private String cartServiceUrl;
-
-    @Value("${services.order.url}")
-    private String orderServiceUrl;
-
-    // Product Service Endpoints
-    @GetMapping("/products")
-    public Mono<ResponseEntity<String>> getAllProducts() {
-        return webClientBuilder.build()
-                .get()
-                .uri(productServiceUrl + "/api/products")
-                .retrieve()
-                .toEntity(String.class)
-                .map(response -> ResponseEntity.status(response.getStatusCode()).body(response.getBody()))
-                .onErrorResume(WebClientResponseException.class, ex -> {
-                    return Mono.just(ResponseEntity
-                            .status(ex.getStatusCode())
-                            .body(ex.getResponseBodyAsString()));
-                });
-    }
-
-    @GetMapping("/products/{id}")
-    public Mono<ResponseEntity<String>> getProduct(@PathVariable Long id) {
-        return webClientBuilder.build()
-                .get()
-                .uri(productServiceUrl + "/api/products/" + id)
-                .retrieve()
-                .toEntity(String.class)
-                .map(response -> ResponseEntity.status(response.getStatusCode()).body(response.getBody()))
-                .onErrorResume(WebClientResponseException.class, ex -> {
-                    return Mono.just(ResponseEntity
-                            .status(ex.getStatusCode())
-                            .body(ex.getResponseBodyAsString()));
-                });
-    }
 
-    // Cart Service Endpoints
-    @GetMapping("/cart/{userId}")
-    public Mono<ResponseEntity<String>> getCart(@PathVariable String userId) {
-        return webClientBuilder.build()
-                .get()
-                .uri(cartServiceUrl + "/api/cart/" + userId)
-                .retrieve()
-                .toEntity(String.class)
-                .map(response -> ResponseEntity.status(response.getStatusCode()).body(response.getBody()))
-                .onErrorResume(WebClientResponseException.class, ex -> {
-                    return Mono.just(ResponseEntity
-                            .status(ex.getStatusCode())
-                            .body(ex.getResponseBodyAsString()));
-                });
-    }
+    // Most /api routes are proxied by RoutedProxyController from the configured route table;
+    // checkout stays a dedicated handler for APM method-level data collection
 
-    @PostMapping("/cart/{userId}/items")
-    public Mono<ResponseEntity<String>> addToCart(@PathVariable String userId, @RequestBody String requestBody) {
-        return webClientBuilder.build()
-                .post()
-                .uri(cartServiceUrl + "/api/cart/" + userId + "/items")
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(requestBody)
-                .retrieve()
-                .toEntity(String.class)
-                .map(response -> ResponseEntity.status(response.getStatusCode()).body(response.getBody()))
-                .onErrorResume(WebClientResponseException.class, ex -> {
-                    // Pass through client errors (4xx) and server errors (5xx) with original status and body
-                    return Mono.just(ResponseEntity
-                            .status(ex.getStatusCode())
-                            .body(ex.getResponseBodyAsString()));
-                });
-    }
+    // Long-lived, pooled clients per downstream service (see WebClientConfig)
+    @Autowired
+    @Qualifier("orderWebClient")
+    private WebClient orderWebClient;
 
-    @DeleteMapping("/cart/{userId}/items/{itemId}")
-    public Mono<ResponseEntity<String>> removeFromCart(@PathVariable String userId, @PathVariable Long itemId) {
-        return webClientBuilder.build()
-                .delete()
-                .uri(cartServiceUrl + "/api/cart/" + userId + "/items/" + itemId)
-                .retrieve()
-                .toEntity(String.class)
-                .map(response -> ResponseEntity.status(response.getStatusCode()).body(response.getBody()))
-                .onErrorResume(WebClientResponseException.class, ex -> {
-                    return Mono.just(ResponseEntity
-                            .status(ex.getStatusCode())
-                            .body(ex.getResponseBodyAsString()));
-                });
-    }
+    @Autowired
+    private StreamingProxy streamingProxy;
 
-    @DeleteMapping("/cart/{userId}")
-    public Mono<ResponseEntity<String>> clearCart(@PathVariable String userId) {
-        return webClientBuilder.build()
-                .delete()
-                .uri(cartServiceUrl + "/api/cart/" + userId)
-                .retrieve()
-                .toEntity(String.class)
-                .map(response -> ResponseEntity.status(response.getStatusCode()).body(response.getBody()))
-                .onErrorResume(WebClientResponseException.class, ex -> {
-                    return Mono.just(ResponseEntity
-                            .status(ex.getStatusCode())
-                            .body(ex.getResponseBodyAsString()));
-                });
-    }
+    @Autowired
+    private RevenueEventPublisher revenueEventPublisher;
 
-    // APM Funnel Tracking: Cart View Event
-    @PostMapping("/cart/{userId}/view-event")
-    public Mono<ResponseEntity<String>> trackCartView(@PathVariable String userId,
-                                                      @RequestHeader(value = "X-Session-ID", required = false) String sessionId,
-                                                      @RequestHeader(value = "X-Journey-ID", required = false) String journeyId) {
-        WebClient.RequestHeadersSpec<?> request = webClientBuilder.build()
-                .post()
-                .uri(cartServiceUrl + "/api/cart/" + userId + "/view-event");
-        
-        if (sessionId != null) {
-            request = request.header("X-Session-ID", sessionId);
-        }
-        if (journeyId != null) {
-            request = request.header("X-Journey-ID", journeyId);
-        }
-        
-        return request
-                .retrieve()
-                .toEntity(String.class)
-                .map(response -> ResponseEntity.status(response.getStatusCode()).body(response.getBody()))
-                .onErrorResume(WebClientResponseException.class, ex -> {
-                    return Mono.just(ResponseEntity
-                            .status(ex.getStatusCode())
-                            .body(ex.getResponseBodyAsString()));
-                });
-    }
+    @Autowired
+    private LatencyHistograms latencyHistograms;
 
-    // APM Funnel Tracking: Checkout Initiated Event
-    @PostMapping("/cart/{userId}/checkout-initiated")
-    public Mono<ResponseEntity<String>> trackCheckoutInitiated(@PathVariable String userId,
-                                                               @RequestHeader(value = "X-Session-ID", required = false) String sessionId,
-                                                               @RequestHeader(value = "X-Journey-ID", required = false) String journeyId) {
-        WebClient.RequestHeadersSpec<?> request = webClientBuilder.build()
-                .post()
-                .uri(cartServiceUrl + "/api/cart/" + userId + "/checkout-initiated");
-        
-        if (sessionId != null) {
-            request = request.header("X-Session-ID", sessionId);
-        }
-        if (journeyId != null) {
-            request = request.header("X-Journey-ID", journeyId);
-        }
-        
-        return request
-                .retrieve()
-                .toEntity(String.class)
-                .map(response -> ResponseEntity.status(response.getStatusCode()).body(response.getBody()))
-                .onErrorResume(WebClientResponseException.class, ex -> {
-                    return Mono.just(ResponseEntity
-                            .status(ex.getStatusCode())
-                            .body(ex.getResponseBodyAsString()));
-                });
-    }
+    @Autowired
+    private PriorityScheduler priorityScheduler;
 
     // Order Service Endpoints
     @PostMapping("/orders/checkout")
-    public Mono<ResponseEntity<String>> checkout(@RequestBody CheckoutRequest checkoutRequest,
-                                                 @RequestHeader(value = "X-Session-ID", required = false) String sessionId,
-                                                 @RequestHeader(value = "X-Journey-ID", required = false) String journeyId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> checkout(@RequestBody CheckoutRequest checkoutRequest,
+                                                           @RequestHeader(value = "X-Session-ID", required = false) String sessionId,
+                                                           @RequestHeader(value = "X-Journey-ID", required = false) String journeyId,
+                                                           @RequestHeader(value = Deadlines.HEADER, required = false) String deadlineBudget) {
+        long start = System.nanoTime();
         
         // APM DATA COLLECTOR: Log revenue data from method parameter
         // checkoutRequest.getTotalAmount() and checkoutRequest.getItemCount() can be captured
@@ -198,9 +67,12 @@ public class GatewayController {
                    sessionId,
                    journeyId);
         
-        WebClient.RequestBodySpec request = webClientBuilder.build()
+        AtomicLong upstreamTime = new AtomicLong();
+        WebClient.RequestBodySpec request = orderWebClient
                 .post()
-                .uri(orderServiceUrl + "/api/orders/checkout")
+                .uri("/api/orders/checkout")
+                .attribute(LatencyHistograms.ROUTE_ATTRIBUTE, "checkout")
+                .attribute(LatencyHistograms.UPSTREAM_TIME_ATTRIBUTE, upstreamTime)
                 .contentType(MediaType.APPLICATION_JSON);
         
         if (sessionId != null) {
@@ -209,111 +81,52 @@ public class GatewayController {
         if (journeyId != null) {
             request = request.header("X-Journey-ID", journeyId);
         }
+        // Without a client budget the order pool's response timeout bounds the call
+        Long deadline = Deadlines.of(deadlineBudget, null);
+        if (deadline != null) {
+            request = request.attribute(Deadlines.ATTRIBUTE, deadline)
+                    .httpRequest(httpRequest -> {
+                        HttpClientRequest nativeRequest = httpRequest.getNativeRequest();
+                        nativeRequest.responseTimeout(Deadlines.remaining(deadline));
+                    });
+        }
         
-        return request
-                .bodyValue(checkoutRequest)
-                .retrieve()
-                .toEntity(String.class)
-                .map(response -> {
-                    // Forward custom headers from Order Service to client for APM tracking
-                    ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getStatusCode());
-                    
-                    // Copy revenue tracking headers (X- prefix for better APM auto-capture)
-                    if (response.getHeaders().containsKey("X-Order-Id")) {
-                        builder.header("X-Order-Id", response.getHeaders().getFirst("X-Order-Id"));
-                    }
-                    if (response.getHeaders().containsKey("X-Order-Value")) {
-                        builder.header("X-Order-Value", response.getHeaders().getFirst("X-Order-Value"));
+        // The order body is streamed to the client untouched; revenue data comes from the
+        // X-Order-* headers and is logged off the response path by RevenueEventPublisher.
+        // Checkout is the top scheduling tier: the last to queue and to be shed under overload
+        return priorityScheduler.schedule(Priority.CRITICAL, streamingProxy.forward(request.bodyValue(checkoutRequest)),
+                        StreamingProxy::buffered)
+                .doOnNext(response -> latencyHistograms.recordRequest("checkout", "order",
+                        response.getStatusCode().value(), System.nanoTime() - start, upstreamTime.get()))
+                .doOnError(ex -> latencyHistograms.recordRequest("checkout", "order",
+                        LatencyHistograms.NO_STATUS, System.nanoTime() - start, upstreamTime.get()))
+                .doOnNext(response -> {
+                    HttpHeaders headers = response.getHeaders();
+                    if (!response.getStatusCode().is2xxSuccessful() || !headers.containsKey("X-Order-Id")) {
+                        return;
                     }
-                    if (response.getHeaders().containsKey("X-Item-Count")) {
-                        builder.header("X-Item-Count", response.getHeaders().getFirst("X-Item-Count"));
-                    }
-                    
-                    // APM DATA COLLECTOR: Parse response body to extract revenue data
+
+                    // APM DATA COLLECTOR: revenue data from the Order Service response headers
                     // These local variables can be captured by APM method instrumentation
-                    String responseBody = response.getBody();
                     Long orderId = null;
                     Double orderValue = null;
                     Integer itemCount = null;
-                    String orderUserId = null;
-                    
+                    String orderUserId = checkoutRequest.getUserId();
+
                     try {
-                        if (responseBody != null && !responseBody.isEmpty()) {
-                            JsonNode orderJson = objectMapper.readTree(responseBody);
-                            
-                            // Extract revenue fields from Order JSON
-                            orderId = orderJson.has("id") ? orderJson.get("id").asLong() : null;
-                            orderValue = orderJson.has("totalAmount") ? orderJson.get("totalAmount").asDouble() : null;
-                            orderUserId = orderJson.has("userId") ? orderJson.get("userId").asText() : null;
-                            
-                            // Count items from items array
-                            if (orderJson.has("items") && orderJson.get("items").isArray()) {
-                                itemCount = orderJson.get("items").size();
-                            }
-                            
-                            // Log for APM visibility (structured logging)
-                            logger.info("APM_REVENUE_GATEWAY: orderId={}, orderValue={}, itemCount={}, userId={}, sessionId={}, journeyId={}", 
-                                       orderId, orderValue, itemCount, orderUserId, sessionId, journeyId);
-                        }
-                    } catch (Exception e) {
-                        logger.warn("Failed to parse order response for APM revenue tracking: {}", e.getMessage());
+                        orderId = Long.valueOf(headers.getFirst("X-Order-Id"));
+                        orderValue = headers.containsKey("X-Order-Value")
+                                ? Double.valueOf(headers.getFirst("X-Order-Value")) : null;
+                        itemCount = headers.containsKey("X-Item-Count")
+                                ? Integer.valueOf(headers.getFirst("X-Item-Count")) : null;
+                    } catch (NumberFormatException e) {
+                        // A partial event would be counted as real revenue; drop it rather than publish a guess
+                        logger.warn("Failed to read order revenue headers for APM revenue tracking: {}", e.getMessage());
+                        return;
                     }
-                    
-                    // Note: orderId, orderValue, itemCount are LOCAL VARIABLES in this method
-                    // APM data collectors can capture them via method instrumentation
-                    
-                    return builder.body(responseBody);
-                })
-                .onErrorResume(WebClientResponseException.class, ex -> {
-                    // Pass through client errors (4xx) and server errors (5xx) with original status and body
-                    return Mono.just(ResponseEntity
-                            .status(ex.getStatusCode())
-                            .body(ex.getResponseBodyAsString()));
-                });
-    }
-
-    @GetMapping("/orders/user/{userId}")
-    public Mono<ResponseEntity<String>> getUserOrders(@PathVariable String userId) {
-        return webClientBuilder.build()
-                .get()
-                .uri(orderServiceUrl + "/api/orders/user/" + userId)
-                .retrieve()
-                .toEntity(String.class)
-                .map(response -> ResponseEntity.status(response.getStatusCode()).body(response.getBody()))
-                .onErrorResume(WebClientResponseException.class, ex -> {
-                    return Mono.just(ResponseEntity
-                            .status(ex.getStatusCode())
-                            .body(ex.getResponseBodyAsString()));
-                });
-    }
-
-    @GetMapping("/orders/{orderId}")
-    public Mono<ResponseEntity<String>> getOrder(@PathVariable Long orderId) {
-        return webClientBuilder.build()
-                .get()
-                .uri(orderServiceUrl + "/api/orders/" + orderId)
-                .retrieve()
-                .toEntity(String.class)
-                .map(response -> ResponseEntity.status(response.getStatusCode()).body(response.getBody()))
-                .onErrorResume(WebClientResponseException.class, ex -> {
-                    return Mono.just(ResponseEntity
-                            .status(ex.getStatusCode())
-                            .body(ex.getResponseBodyAsString()));
-                });
-    }
 
-    @GetMapping("/orders")
-    public Mono<ResponseEntity<String>> getAllOrders() {
-        return webClientBuilder.build()
-                .get()
-                .uri(orderServiceUrl + "/api/orders")
-                .retrieve()
-                .toEntity(String.class)
-                .map(response -> ResponseEntity.status(response.getStatusCode()).body(response.getBody()))
-                .onErrorResume(WebClientResponseException.class, ex -> {
-                    return Mono.just(ResponseEntity
-                            .status(ex.getStatusCode())
-                            .body(ex.getResponseBodyAsString()));
+                    revenueEventPublisher.publish(new RevenueEvent(orderId, orderValue, itemCount,
+                            orderUserId, sessionId, journeyId));
                 });
     }
 
@@ -322,21 +135,4 @@ public class GatewayController {
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("API Gateway is running");
     }
-    
-    // APM Revenue Metrics
-    @GetMapping("/metrics/revenue")
-    public Mono<ResponseEntity<String>> getRevenueMetrics() {
-        return webClientBuilder.build()
-                .get()
-                .uri(orderServiceUrl + "/api/orders/metrics/revenue")
-                .retrieve()
-                .toEntity(String.class)
-                .map(response -> ResponseEntity.status(response.getStatusCode()).body(response.getBody()))
-                .onErrorResume(WebClientResponseException.class, ex -> {
-                    return Mono.just(ResponseEntity
-                            .status(ex.getStatusCode())
-                            .body(ex.getResponseBodyAsString()));
-                });
-    }
 }
-
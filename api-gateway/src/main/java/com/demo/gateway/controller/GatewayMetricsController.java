@@ -0,0 +1,146 @@
+package com.demo.gateway.controller;
+
+import com.demo.gateway.cache.ResponseCache;
+import com.demo.gateway.metrics.LatencyHistograms;
+import com.demo.gateway.metrics.PoolMetricsRegistry;
+import com.demo.gateway.metrics.RevenueEventPublisher;
+import com.demo.gateway.proxy.RequestCoalescer;
+import com.demo.gateway.proxy.RequestHedger;
+import com.demo.gateway.proxy.RetryBudget;
+import com.demo.gateway.proxy.TrafficMirror;
+import com.demo.gateway.ratelimit.RateLimiter;
+import com.demo.gateway.resilience.AdaptiveConcurrencyLimiter;
+import com.demo.gateway.resilience.DownstreamResilience;
+import com.demo.gateway.resilience.PriorityScheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Gateway-internal metrics (not proxied to any backend service)
+ */
+@RestController
+@RequestMapping("/api/gateway/metrics")
+public class GatewayMetricsController {
+
+    @Autowired
+    private PoolMetricsRegistry poolMetricsRegistry;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
+    @Autowired
+    private RequestHedger requestHedger;
+
+    @Autowired
+    private RetryBudget retryBudget;
+
+    @Autowired
+    private DownstreamResilience downstreamResilience;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Autowired
+    private PriorityScheduler priorityScheduler;
+
+    @Autowired
+    private RevenueEventPublisher revenueEventPublisher;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private LatencyHistograms latencyHistograms;
+
+    @Autowired
+    private TrafficMirror trafficMirror;
+
+    // Connection pool occupancy and acquire-wait per downstream service
+    @GetMapping("/pools")
+    public ResponseEntity<Map<String, Object>> getPoolMetrics() {
+        return ResponseEntity.ok(poolMetricsRegistry.snapshot());
+    }
+
+    // Response cache size plus hit/miss/eviction counters per cached route
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> getCacheMetrics() {
+        return ResponseEntity.ok(responseCache.snapshot());
+    }
+
+    // Single-flight coalescing: downstream calls saved per route
+    @GetMapping("/coalescing")
+    public ResponseEntity<Map<String, Object>> getCoalescingMetrics() {
+        return ResponseEntity.ok(requestCoalescer.snapshot());
+    }
+
+    // Hedged requests: current hedge delay, hedges sent and won per route, global budget
+    @GetMapping("/hedging")
+    public ResponseEntity<Map<String, Object>> getHedgingMetrics() {
+        return ResponseEntity.ok(requestHedger.snapshot());
+    }
+
+    // Retries: requests, retries issued and denied by the budget per route, remaining retry budget
+    @GetMapping("/retries")
+    public ResponseEntity<Map<String, Object>> getRetryMetrics() {
+        return ResponseEntity.ok(retryBudget.snapshot());
+    }
+
+    // Circuit breaker state and bulkhead occupancy per downstream service
+    @GetMapping("/breakers")
+    public ResponseEntity<Map<String, Object>> getBreakerMetrics() {
+        return ResponseEntity.ok(downstreamResilience.snapshot());
+    }
+
+    // Adaptive concurrency limit, in-flight calls and shed count per downstream service
+    @GetMapping("/limits")
+    public ResponseEntity<Map<String, Object>> getLimiterMetrics() {
+        return ResponseEntity.ok(concurrencyLimiter.snapshot());
+    }
+
+    // Priority tiers: in-flight requests, queue depth, queue wait percentiles and shed count per tier
+    @GetMapping("/priorities")
+    public ResponseEntity<Map<String, Object>> getPriorityMetrics() {
+        return ResponseEntity.ok(priorityScheduler.snapshot());
+    }
+
+    // Background revenue event processing: published, processed, dropped, queued
+    @GetMapping("/revenue-events")
+    public ResponseEntity<Map<String, Object>> getRevenueEventMetrics() {
+        return ResponseEntity.ok(revenueEventPublisher.snapshot());
+    }
+
+    // Token-bucket rate limits: allowed / limited requests and tracked users per route
+    @GetMapping("/rate-limits")
+    public ResponseEntity<Map<String, Object>> getRateLimitMetrics() {
+        return ResponseEntity.ok(rateLimiter.snapshot());
+    }
+
+    // Latency percentiles and throughput per route and status (total, backend, gateway) over rolling windows
+    @GetMapping("/latency")
+    public ResponseEntity<Map<String, Object>> getLatencyMetrics() {
+        return ResponseEntity.ok(latencyHistograms.snapshot());
+    }
+
+    // Traffic mirroring: primary vs candidate backend latency, status and body equality per mirrored route
+    @GetMapping("/mirror")
+    public ResponseEntity<Map<String, Object>> getMirrorMetrics() {
+        return ResponseEntity.ok(trafficMirror.snapshot());
+    }
+
+    // Same histograms in Prometheus text exposition format, for scraping
+    @GetMapping("/latency/prometheus")
+    public ResponseEntity<String> getLatencyMetricsPrometheus() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/plain; version=0.0.4; charset=utf-8"))
+                .body(latencyHistograms.prometheus());
+    }
+}
@@ -0,0 +1,207 @@
+package com.demo.gateway.controller;
+
+import com.demo.gateway.metrics.LatencyHistograms;
+import com.demo.gateway.proxy.CachingProxy;
+import com.demo.gateway.proxy.ClientPreferences;
+import com.demo.gateway.proxy.Deadlines;
+import com.demo.gateway.proxy.StreamingProxy;
+import com.demo.gateway.proxy.TrafficMirror;
+import com.demo.gateway.ratelimit.RateLimiter;
+import com.demo.gateway.resilience.PriorityScheduler;
+import com.demo.gateway.routing.CompiledRoute;
+import com.demo.gateway.routing.RouteMatch;
+import com.demo.gateway.routing.RouteTable;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Proxies every /api request that has no dedicated handler through the
+ * configured route table (gateway.routing.routes, see RouteTable). Each route
+ * gets the same pipeline: path match, pre-built downstream URI, forwarded
+ * headers, rate limits, priority scheduling, per-route timeout and retries, then the
+ * streaming or the buffered (cache / coalescing / hedging) proxy, optionally mirrored
+ * to a candidate backend.
+ */
+@RestController
+public class RoutedProxyController {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private RouteTable routeTable;
+
+    @Autowired
+    private StreamingProxy streamingProxy;
+
+    @Autowired
+    private CachingProxy cachingProxy;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private LatencyHistograms latencyHistograms;
+
+    @Autowired
+    private PriorityScheduler priorityScheduler;
+
+    @Autowired
+    private TrafficMirror trafficMirror;
+
+    @RequestMapping("/api/**")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> route(ServerHttpRequest request,
+                                                        @RequestBody(required = false) byte[] body) {
+        return forward(request.getMethod(), request.getPath().value(), request.getURI().getRawQuery(),
+                request.getHeaders()::getFirst, body);
+    }
+
+    /**
+     * The routing pipeline for one request, given its raw path and query and a lookup of
+     * its headers; also used for the sub-requests of a batch (see BatchController)
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> forward(HttpMethod method, String path, String query,
+                                                          Function<String, String> headers, byte[] body) {
+        long start = System.nanoTime();
+
+        RouteMatch match = routeTable.match(method, path);
+        if (match == null) {
+            return Mono.just(error(HttpStatus.NOT_FOUND, "No route for " + method + " " + path));
+        }
+        CompiledRoute route = match.getRoute();
+        if (route == null) {
+            return Mono.just(error(HttpStatus.METHOD_NOT_ALLOWED, "Method " + method + " not supported for " + path,
+                    match.getAllowedMethods().toArray(new HttpMethod[0])));
+        }
+
+        String[] values = match.getValues();
+        String user = route.userId(values);
+        long waitNanos = rateLimiter.tryAcquire(route.getId(), user != null ? user : headers.apply("X-Session-ID"));
+        if (waitNanos > 0) {
+            latencyHistograms.recordRequest(route.getId(), route.getService(), HttpStatus.TOO_MANY_REQUESTS.value(),
+                    System.nanoTime() - start, 0);
+            return Mono.just(rateLimited(route.getId(), waitNanos));
+        }
+
+        AtomicLong upstreamTime = new AtomicLong();
+        WebClient.RequestBodySpec spec = route.getClient()
+                .method(method)
+                .uri(URI.create(route.targetUri(values, query)))
+                .attribute(LatencyHistograms.ROUTE_ATTRIBUTE, route.getId())
+                .attribute(LatencyHistograms.UPSTREAM_TIME_ATTRIBUTE, upstreamTime);
+
+        // A request carrying its own header values (session, If-None-Match...) must not share another's response
+        boolean coalesce = route.isCoalesce();
+        for (String header : route.getForwardHeaders()) {
+            String value = headers.apply(header);
+            if (value != null) {
+                spec = spec.header(header, value);
+                coalesce = false;
+            }
+        }
+        // Retries and hedges share one deadline: the route timeout or the client's budget, whichever is shorter
+        Long deadline = Deadlines.of(headers.apply(Deadlines.HEADER), route.getTimeout());
+        if (deadline != null) {
+            spec = spec.attribute(Deadlines.ATTRIBUTE, deadline)
+                    .httpRequest(httpRequest -> {
+                        HttpClientRequest nativeRequest = httpRequest.getNativeRequest();
+                        nativeRequest.responseTimeout(Deadlines.remaining(deadline));
+                    });
+        }
+
+        WebClient.RequestHeadersSpec<?> exchange = spec;
+        if (body != null && body.length > 0) {
+            String contentType = headers.apply(HttpHeaders.CONTENT_TYPE);
+            exchange = spec
+                    .header(HttpHeaders.CONTENT_TYPE, contentType != null ? contentType : MediaType.APPLICATION_JSON_VALUE)
+                    .bodyValue(body);
+        }
+
+        Mono<ResponseEntity<Flux<DataBuffer>>> response;
+        if (route.isBuffered()) {
+            String key = query == null ? route.cacheKey(values) : route.cacheKey(values) + "?" + query;
+            ClientPreferences preferences = ClientPreferences.of(headers.apply(HttpHeaders.IF_NONE_MATCH),
+                    headers.apply(HttpHeaders.ACCEPT_ENCODING));
+            response = cachingProxy.forward(route.getId(), key, exchange, route.getRetries(), preferences,
+                            deadline, coalesce)
+                    .map(StreamingProxy::buffered);
+        } else {
+            response = streamingProxy.forward(route.getId(), exchange, route.getRetries());
+        }
+        // Sampled requests are also sent to the route's candidate backend, if one is configured
+        response = trafficMirror.mirror(route, values, query, headers, body, upstreamTime, response);
+        // Queue time counts towards the route latency; the deadline above keeps running while queued
+        return timed(route, start, upstreamTime,
+                priorityScheduler.schedule(route.getPriority(), response, StreamingProxy::buffered));
+    }
+
+    /**
+     * Record time to response headers per route and status, split into backend and gateway time
+     */
+    private Mono<ResponseEntity<Flux<DataBuffer>>> timed(CompiledRoute route, long start, AtomicLong upstreamTime,
+                                                         Mono<ResponseEntity<Flux<DataBuffer>>> response) {
+        return response
+                .doOnNext(entity -> latencyHistograms.recordRequest(route.getId(), route.getService(),
+                        entity.getStatusCode().value(), System.nanoTime() - start, upstreamTime.get()))
+                .doOnError(ex -> latencyHistograms.recordRequest(route.getId(), route.getService(),
+                        LatencyHistograms.NO_STATUS, System.nanoTime() - start, upstreamTime.get()));
+    }
+
+    private ResponseEntity<Flux<DataBuffer>> rateLimited(String route, long waitNanos) {
+        // Whole seconds, rounded up so a client that waits that long finds a token
+        long second = TimeUnit.SECONDS.toNanos(1);
+        long retryAfter = Math.max(1, (waitNanos + second - 1) / second);
+        byte[] body = errorBody(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded for " + route);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(StreamingProxy.bytes(body));
+    }
+
+    private ResponseEntity<Flux<DataBuffer>> error(HttpStatus status, String message,
+                                                   HttpMethod... allowedMethods) {
+        byte[] body = errorBody(status, message);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+        if (allowedMethods.length > 0) {
+            builder.allow(allowedMethods);
+        }
+        return builder
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(StreamingProxy.bytes(body));
+    }
+
+    /**
+     * The message may quote the raw request path (batch sub-request paths are not URL-encoded), so Jackson escapes it
+     */
+    private byte[] errorBody(HttpStatus status, String message) {
+        Map<String, String> error = new LinkedHashMap<>();
+        error.put("error", status.getReasonPhrase());
+        error.put("message", message);
+        try {
+            return objectMapper.writeValueAsBytes(error);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render error response", e);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.demo.gateway.controller;
+
+import com.demo.gateway.proxy.CachingProxy;
+import com.demo.gateway.proxy.ClientPreferences;
+import com.demo.gateway.resilience.Priority;
+import com.demo.gateway.resilience.PriorityScheduler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Backend-for-frontend endpoint: everything the storefront page needs on load
+ * (catalog, the user's cart and order history) in one round trip.
+ *
+ * The three backends are queried concurrently, so page-load latency is roughly
+ * that of the slowest call instead of the sum. Each part has its own timeout;
+ * a part that fails or times out is returned as null and listed under "errors"
+ * instead of failing the whole document.
+ */
+@RestController
+@RequestMapping("/api/storefront")
+public class StorefrontController {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorefrontController.class);
+
+    private static final Set<String> ALL_PARTS = Set.of("products", "cart", "orders");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    @Qualifier("productWebClient")
+    private WebClient productWebClient;
+
+    @Autowired
+    @Qualifier("cartWebClient")
+    private WebClient cartWebClient;
+
+    @Autowired
+    @Qualifier("orderWebClient")
+    private WebClient orderWebClient;
+
+    @Autowired
+    private CachingProxy cachingProxy;
+
+    @Autowired
+    private PriorityScheduler priorityScheduler;
+
+    @Value("${gateway.storefront.part-timeout:1500ms}")
+    private Duration partTimeout;
+
+    @GetMapping("/{userId}")
+    public Mono<ResponseEntity<byte[]>> getStorefront(@PathVariable String userId,
+                                                      @RequestParam(required = false) List<String> include) {
+        Set<String> parts = include == null || include.isEmpty() ? ALL_PARTS : Set.copyOf(include);
+
+        Mono<Part> products = part("products", parts, () -> cachingProxy.forward("product-list", "all", productWebClient
+                .get()
+                .uri("/api/products")));
+        // The user's own cart and orders must reflect their latest writes: hedged, but never coalesced
+        Mono<Part> cart = part("cart", parts, () -> cachingProxy.forward("cart", userId, cartWebClient
+                .get()
+                .uri("/api/cart/{userId}", userId), 0, ClientPreferences.NONE, null, false));
+        Mono<Part> orders = part("orders", parts, () -> cachingProxy.forward("user-orders", userId, orderWebClient
+                .get()
+                .uri("/api/orders/user/{userId}", userId), 0, ClientPreferences.NONE, null, false));
+
+        // One read-tier slot for the whole page load
+        return priorityScheduler.schedule(Priority.NORMAL, Mono.zip(products, cart, orders)
+                .map(result -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(render(userId, List.of(result.getT1(), result.getT2(), result.getT3())))),
+                Function.identity());
+    }
+
+    private Mono<Part> part(String name, Set<String> requested, Supplier<Mono<ResponseEntity<byte[]>>> call) {
+        if (!requested.contains(name)) {
+            return Mono.just(Part.skipped(name));
+        }
+        return Mono.defer(call)
+                .timeout(partTimeout)
+                .map(response -> response.getStatusCode().is2xxSuccessful()
+                        ? Part.ok(name, response.getBody())
+                        : Part.failed(name, "status " + response.getStatusCode().value()))
+                .onErrorResume(ex -> {
+                    logger.warn("Storefront part unavailable - part={}, error={}", name, ex.toString());
+                    return Mono.just(Part.failed(name, ex.getClass().getSimpleName()));
+                });
+    }
+
+    /**
+     * Splice the raw downstream JSON bytes into one document without re-parsing them
+     */
+    private byte[] render(String userId, List<Part> parts) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Map<String, String> errors = new LinkedHashMap<>();
+
+            out.write("{\"userId\":".getBytes(StandardCharsets.UTF_8));
+            out.write(objectMapper.writeValueAsBytes(userId));
+            for (Part part : parts) {
+                if (part.skipped) {
+                    continue;
+                }
+                out.write((",\"" + part.name + "\":").getBytes(StandardCharsets.UTF_8));
+                if (part.body != null && part.body.length > 0) {
+                    out.write(part.body);
+                } else {
+                    out.write("null".getBytes(StandardCharsets.UTF_8));
+                }
+                if (part.error != null) {
+                    errors.put(part.name, part.error);
+                }
+            }
+            out.write((",\"partial\":" + !errors.isEmpty() + ",\"errors\":").getBytes(StandardCharsets.UTF_8));
+            out.write(objectMapper.writeValueAsBytes(errors));
+            out.write('}');
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to render storefront document", e);
+        }
+    }
+
+    private static final class Part {
+        private final String name;
+        private final byte[] body;
+        private final String error;
+        private final boolean skipped;
+
+        private Part(String name, byte[] body, String error, boolean skipped) {
+            this.name = name;
+            this.body = body;
+            this.error = error;
+            this.skipped = skipped;
+        }
+
+        static Part ok(String name, byte[] body) {
+            return new Part(name, body, null, false);
+        }
+
+        static Part failed(String name, String error) {
+            return new Part(name, null, error, false);
+        }
+
+        static Part skipped(String name) {
+            return new Part(name, null, null, true);
+        }
+    }
+}
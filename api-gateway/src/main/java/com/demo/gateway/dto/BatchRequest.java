@@ -0,0 +1,76 @@
+package com.demo.gateway.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One sub-request of POST /api/batch
+ */
+public class BatchRequest {
+    
+    // Referenced by other sub-requests' dependsOn; defaults to the position in the batch
+    private String id;
+    private String method = "GET";
+    // Gateway path, optionally with a query string, e.g. /api/cart/user1
+    private String path;
+    private Map<String, String> headers = new LinkedHashMap<>();
+    private JsonNode body;
+    // Sub-requests that must have succeeded (2xx) before this one runs
+    private List<String> dependsOn = new ArrayList<>();
+    
+    public BatchRequest() {}
+    
+    // Getters and Setters
+    
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getMethod() {
+        return method;
+    }
+    
+    public void setMethod(String method) {
+        this.method = method;
+    }
+    
+    public String getPath() {
+        return path;
+    }
+    
+    public void setPath(String path) {
+        this.path = path;
+    }
+    
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+    
+    public void setHeaders(Map<String, String> headers) {
+        this.headers = headers;
+    }
+    
+    public JsonNode getBody() {
+        return body;
+    }
+    
+    public void setBody(JsonNode body) {
+        this.body = body;
+    }
+    
+    public List<String> getDependsOn() {
+        return dependsOn;
+    }
+    
+    public void setDependsOn(List<String> dependsOn) {
+        this.dependsOn = dependsOn;
+    }
+}
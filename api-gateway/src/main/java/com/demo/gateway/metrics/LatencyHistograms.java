@@ -0,0 +1,283 @@
+package com.demo.gateway.metrics;
+
+import jakarta.annotation.PreDestroy;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+/**
+ * Per-route latency histograms over rolling windows: total time per response
+ * status, backend time per downstream status, and time spent in the gateway
+ * itself (total minus backend).
+ *
+ * Recording is a map lookup by route id, an array lookup by status and a
+ * wait-free HdrHistogram record. Every gateway.latency.slice a background
+ * thread closes the current slice; two windows are reported, the last slice
+ * and the last gateway.latency.slices slices.
+ */
+@Component
+public class LatencyHistograms {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyHistograms.class);
+
+    // WebClient request attributes set by the proxy controllers and read by the timing filter
+    public static final String ROUTE_ATTRIBUTE = "gateway.route";
+    public static final String UPSTREAM_TIME_ATTRIBUTE = "gateway.upstreamTime";
+
+    // Status recorded for exchanges that ended without a response (timeouts, connection errors)
+    public static final int NO_STATUS = 0;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final boolean enabled;
+    private final Duration slice;
+    private final int sliceCount;
+    private final Map<String, RouteSeries> routes = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService rotator;
+
+    public LatencyHistograms(@Value("${gateway.latency.enabled:true}") boolean enabled,
+                             @Value("${gateway.latency.slice:10s}") Duration slice,
+                             @Value("${gateway.latency.slices:6}") int sliceCount) {
+        this.enabled = enabled;
+        this.slice = slice;
+        this.sliceCount = Math.max(1, sliceCount);
+        this.rotator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "latency-histograms");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rotator.scheduleAtFixedRate(this::rotate, slice.toMillis(), slice.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * A response returned to the client; upstreamNanos is 0 when no backend call was made (e.g. cache hit)
+     */
+    public void recordRequest(String route, String service, int status, long totalNanos, long upstreamNanos) {
+        if (!enabled) {
+            return;
+        }
+        RouteSeries series = series(route, service);
+        series.total(status).record(totalNanos);
+        series.gateway.record(Math.max(0, totalNanos - upstreamNanos));
+    }
+
+    /**
+     * One backend exchange, from sending the request to receiving the response headers
+     */
+    public void recordUpstream(String route, String service, int status, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        series(route, service).upstream(status).record(nanos);
+    }
+
+    private RouteSeries series(String route, String service) {
+        RouteSeries series = routes.get(route);
+        if (series == null) {
+            series = routes.computeIfAbsent(route, key -> new RouteSeries(service, sliceCount));
+        }
+        return series;
+    }
+
+    private void rotate() {
+        try {
+            routes.values().forEach(RouteSeries::rotate);
+        } catch (Exception e) {
+            logger.warn("Latency histogram rotation failed - error={}", e.getMessage());
+        }
+    }
+
+    private Map<String, Integer> windows() {
+        Map<String, Integer> windows = new LinkedHashMap<>();
+        windows.put(label(slice), 1);
+        if (sliceCount > 1) {
+            windows.put(label(slice.multipliedBy(sliceCount)), sliceCount);
+        }
+        return windows;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Integer> windows = windows();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("windows", windows.keySet());
+
+        Map<String, Object> perRoute = new LinkedHashMap<>();
+        routes.forEach((route, series) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("service", series.service);
+            stats.put("total", byStatus(series.totals, windows));
+            stats.put("upstream", byStatus(series.upstreams, windows));
+            stats.put("gateway", windowStats(series.gateway, windows));
+            perRoute.put(route, stats);
+        });
+        result.put("routes", perRoute);
+        return result;
+    }
+
+    /**
+     * Prometheus text exposition: one summary per series, with quantiles over the
+     * long window and _sum/_count since startup (Prometheus derives rates from
+     * counters, so these must never go down), plus the request rate per window as a gauge
+     */
+    public String prometheus() {
+        Map<String, Integer> windows = windows();
+        StringBuilder out = new StringBuilder(4096);
+        out.append("# HELP gateway_request_duration_seconds Time from request arrival to response headers, per route and status\n")
+                .append("# TYPE gateway_request_duration_seconds summary\n");
+        routes.forEach((route, series) -> forEachStatus(series.totals, (status, histogram) ->
+                summary(out, "gateway_request_duration_seconds", labels(route, series.service, status), histogram)));
+
+        out.append("# HELP gateway_upstream_duration_seconds Backend exchange time per route and downstream status\n")
+                .append("# TYPE gateway_upstream_duration_seconds summary\n");
+        routes.forEach((route, series) -> forEachStatus(series.upstreams, (status, histogram) ->
+                summary(out, "gateway_upstream_duration_seconds", labels(route, series.service, status), histogram)));
+
+        out.append("# HELP gateway_overhead_duration_seconds Time spent in the gateway (total minus backend) per route\n")
+                .append("# TYPE gateway_overhead_duration_seconds summary\n");
+        routes.forEach((route, series) ->
+                summary(out, "gateway_overhead_duration_seconds", labels(route, series.service, null), series.gateway));
+
+        out.append("# HELP gateway_requests_per_second Responses per second over the window, per route and status\n")
+                .append("# TYPE gateway_requests_per_second gauge\n");
+        routes.forEach((route, series) -> forEachStatus(series.totals, (status, histogram) ->
+                windows.forEach((window, slices) -> out.append("gateway_requests_per_second{")
+                        .append(labels(route, series.service, status)).append(",window=\"").append(window).append("\"} ")
+                        .append(format(rate(histogram.merged(slices), slices))).append('\n'))));
+        return out.toString();
+    }
+
+    private void summary(StringBuilder out, String name, String labels, RollingHistogram histogram) {
+        Histogram merged = histogram.merged(sliceCount);
+        for (double quantile : QUANTILES) {
+            out.append(name).append('{').append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+                    .append(format(seconds(merged.getValueAtPercentile(quantile * 100)))).append('\n');
+        }
+        out.append(name).append("_sum{").append(labels).append("} ")
+                .append(format(seconds(histogram.totalMicros()))).append('\n');
+        out.append(name).append("_count{").append(labels).append("} ").append(histogram.totalCount()).append('\n');
+    }
+
+    private Map<String, Object> byStatus(AtomicReferenceArray<RollingHistogram> byStatus, Map<String, Integer> windows) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        forEachStatus(byStatus, (status, histogram) -> result.put(status, windowStats(histogram, windows)));
+        return result;
+    }
+
+    private Map<String, Object> windowStats(RollingHistogram histogram, Map<String, Integer> windows) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        windows.forEach((window, slices) -> {
+            Histogram merged = histogram.merged(slices);
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", merged.getTotalCount());
+            stats.put("requestsPerSecond", rate(merged, slices));
+            stats.put("meanMs", millis(merged.getMean()));
+            stats.put("p50Ms", millis(merged.getValueAtPercentile(50)));
+            stats.put("p90Ms", millis(merged.getValueAtPercentile(90)));
+            stats.put("p99Ms", millis(merged.getValueAtPercentile(99)));
+            stats.put("p999Ms", millis(merged.getValueAtPercentile(99.9)));
+            stats.put("maxMs", millis(merged.getMaxValue()));
+            result.put(window, stats);
+        });
+        return result;
+    }
+
+    private static void forEachStatus(AtomicReferenceArray<RollingHistogram> byStatus,
+                                      BiConsumer<String, RollingHistogram> action) {
+        for (int status = 0; status < byStatus.length(); status++) {
+            RollingHistogram histogram = byStatus.get(status);
+            if (histogram != null) {
+                action.accept(status == NO_STATUS ? "error" : Integer.toString(status), histogram);
+            }
+        }
+    }
+
+    private double rate(Histogram merged, int slices) {
+        return merged.getTotalCount() / (slice.toMillis() * slices / 1000.0);
+    }
+
+    private static String labels(String route, String service, String status) {
+        String labels = "route=\"" + route + "\",service=\"" + service + "\"";
+        return status != null ? labels + ",status=\"" + status + "\"" : labels;
+    }
+
+    private static String label(Duration window) {
+        return window.toSeconds() % 60 == 0 ? window.toMinutes() + "m" : window.toSeconds() + "s";
+    }
+
+    private static double millis(double micros) {
+        return Math.round(micros) / 1000.0;
+    }
+
+    private static double seconds(double micros) {
+        return micros / 1_000_000.0;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.6f", value);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rotator.shutdownNow();
+    }
+
+    private static class RouteSeries {
+        private final String service;
+        private final int sliceCount;
+        // Indexed by HTTP status code; slot 0 = no response
+        private final AtomicReferenceArray<RollingHistogram> totals = new AtomicReferenceArray<>(600);
+        private final AtomicReferenceArray<RollingHistogram> upstreams = new AtomicReferenceArray<>(600);
+        private final RollingHistogram gateway;
+
+        RouteSeries(String service, int sliceCount) {
+            this.service = service;
+            this.sliceCount = sliceCount;
+            this.gateway = new RollingHistogram(sliceCount);
+        }
+
+        RollingHistogram total(int status) {
+            return histogram(totals, status);
+        }
+
+        RollingHistogram upstream(int status) {
+            return histogram(upstreams, status);
+        }
+
+        private RollingHistogram histogram(AtomicReferenceArray<RollingHistogram> byStatus, int status) {
+            int index = status > 0 && status < byStatus.length() ? status : NO_STATUS;
+            RollingHistogram histogram = byStatus.get(index);
+            if (histogram == null) {
+                byStatus.compareAndSet(index, null, new RollingHistogram(sliceCount));
+                histogram = byStatus.get(index);
+            }
+            return histogram;
+        }
+
+        void rotate() {
+            gateway.rotate();
+            for (int i = 0; i < totals.length(); i++) {
+                RollingHistogram total = totals.get(i);
+                if (total != null) {
+                    total.rotate();
+                }
+                RollingHistogram upstream = upstreams.get(i);
+                if (upstream != null) {
+                    upstream.rotate();
+                }
+            }
+        }
+    }
+}
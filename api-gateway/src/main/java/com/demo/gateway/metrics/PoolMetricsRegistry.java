@@ -0,0 +1,106 @@
+package com.demo.gateway.metrics;
+
+import org.springframework.stereotype.Component;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects Reactor Netty connection pool occupancy and acquire-wait timings
+ * for each downstream service, without requiring Micrometer.
+ *
+ * Reactor Netty calls registerMetrics() once per (pool, remote address) pair;
+ * acquire waits are reported by the HttpClient of each downstream.
+ */
+@Component
+public class PoolMetricsRegistry implements ConnectionProvider.MeterRegistrar {
+
+    private final Map<String, Map<String, ConnectionPoolMetrics>> pools = new ConcurrentHashMap<>();
+    private final Map<String, AcquireStats> acquireStats = new ConcurrentHashMap<>();
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        pools.computeIfAbsent(poolName, name -> new ConcurrentHashMap<>())
+                .put(remoteAddress + "#" + id, metrics);
+    }
+
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        Map<String, ConnectionPoolMetrics> byRemote = pools.get(poolName);
+        if (byRemote != null) {
+            byRemote.remove(remoteAddress + "#" + id);
+        }
+    }
+
+    /**
+     * Record how long a request waited before a pooled connection was ready to use
+     */
+    public void recordAcquire(String poolName, long waitNanos) {
+        acquireStats.computeIfAbsent(poolName, name -> new AcquireStats()).record(waitNanos);
+    }
+
+    /**
+     * Snapshot of every pool, keyed by pool name, suitable for JSON rendering
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, ConnectionPoolMetrics>> pool : pools.entrySet()) {
+            int acquired = 0;
+            int allocated = 0;
+            int idle = 0;
+            int pending = 0;
+            int maxAllocated = 0;
+            int maxPending = 0;
+            for (ConnectionPoolMetrics metrics : pool.getValue().values()) {
+                acquired += metrics.acquiredSize();
+                allocated += metrics.allocatedSize();
+                idle += metrics.idleSize();
+                pending += metrics.pendingAcquireSize();
+                maxAllocated += metrics.maxAllocatedSize();
+                maxPending += metrics.maxPendingAcquireSize();
+            }
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("acquired", acquired);
+            stats.put("allocated", allocated);
+            stats.put("idle", idle);
+            stats.put("pendingAcquire", pending);
+            stats.put("maxConnections", maxAllocated);
+            stats.put("maxPendingAcquire", maxPending);
+            stats.put("utilization", maxAllocated > 0 ? (double) acquired / maxAllocated : 0.0);
+            result.put(pool.getKey(), stats);
+        }
+
+        for (Map.Entry<String, AcquireStats> entry : acquireStats.entrySet()) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> stats = (Map<String, Object>) result.computeIfAbsent(entry.getKey(), name -> new LinkedHashMap<>());
+            entry.getValue().writeTo(stats);
+        }
+        return result;
+    }
+
+    private static class AcquireStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long waitNanos) {
+            count.increment();
+            totalNanos.add(waitNanos);
+            maxNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+
+        void writeTo(Map<String, Object> stats) {
+            long acquires = count.sum();
+            stats.put("acquires", acquires);
+            stats.put("acquireWaitAvgMs", acquires > 0 ? totalNanos.sum() / 1_000_000.0 / acquires : 0.0);
+            stats.put("acquireWaitMaxMs", maxNanos.get() / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.demo.gateway.metrics;
+
+/**
+ * Revenue data of one completed checkout, taken from the order service's
+ * X-Order-Id / X-Order-Value / X-Item-Count response headers
+ */
+public final class RevenueEvent {
+
+    private final Long orderId;
+    private final Double orderValue;
+    private final Integer itemCount;
+    private final String userId;
+    private final String sessionId;
+    private final String journeyId;
+
+    public RevenueEvent(Long orderId, Double orderValue, Integer itemCount,
+                        String userId, String sessionId, String journeyId) {
+        this.orderId = orderId;
+        this.orderValue = orderValue;
+        this.itemCount = itemCount;
+        this.userId = userId;
+        this.sessionId = sessionId;
+        this.journeyId = journeyId;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Double getOrderValue() {
+        return orderValue;
+    }
+
+    public Integer getItemCount() {
+        return itemCount;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getJourneyId() {
+        return journeyId;
+    }
+}
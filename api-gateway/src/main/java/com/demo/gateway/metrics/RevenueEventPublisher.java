@@ -0,0 +1,74 @@
+package com.demo.gateway.metrics;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Processes revenue events (APM_REVENUE_GATEWAY logging) on a background
+ * thread, so the checkout response is never held up by it. The queue is
+ * bounded: if it is full the event is dropped and counted rather than
+ * blocking a request thread.
+ */
+@Component
+public class RevenueEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevenueEventPublisher.class);
+
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public RevenueEventPublisher(@Value("${gateway.revenue-events.queue-capacity:10000}") int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "revenue-events");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> dropped.increment());
+    }
+
+    public void publish(RevenueEvent event) {
+        published.increment();
+        executor.execute(() -> process(event));
+    }
+
+    private void process(RevenueEvent event) {
+        try {
+            // Log for APM visibility (structured logging)
+            logger.info("APM_REVENUE_GATEWAY: orderId={}, orderValue={}, itemCount={}, userId={}, sessionId={}, journeyId={}",
+                    event.getOrderId(), event.getOrderValue(), event.getItemCount(),
+                    event.getUserId(), event.getSessionId(), event.getJourneyId());
+            processed.increment();
+        } catch (Exception e) {
+            logger.warn("Failed to process revenue event - orderId={}, error={}", event.getOrderId(), e.getMessage());
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("published", published.sum());
+        stats.put("processed", processed.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("queued", executor.getQueue().size());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,75 @@
+package com.demo.gateway.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram over a rolling time window. Request threads record into
+ * an HdrHistogram Recorder (wait-free, no allocation); a single background
+ * thread rotates the recorder into a ring of completed slices, and readers
+ * merge the slices they need. Count and sum are also kept since creation,
+ * for monitoring systems that compute their own rates.
+ */
+final class RollingHistogram {
+
+    // Microsecond resolution up to one hour, 2 significant digits (~1% error)
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Recorder recorder = new Recorder(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+    private final Histogram[] slices;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private int current = -1;
+
+    RollingHistogram(int sliceCount) {
+        this.slices = new Histogram[sliceCount];
+    }
+
+    void record(long nanos) {
+        long micros = Math.max(0, Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        recorder.recordValue(micros);
+        count.increment();
+        sumMicros.add(micros);
+    }
+
+    /**
+     * Values recorded since creation; never decreases
+     */
+    long totalCount() {
+        return count.sum();
+    }
+
+    /**
+     * Sum of the values recorded since creation, in microseconds; never decreases
+     */
+    long totalMicros() {
+        return sumMicros.sum();
+    }
+
+    /**
+     * Close the current slice; called by the rotation thread only
+     */
+    synchronized void rotate() {
+        current = (current + 1) % slices.length;
+        // Reuse the histogram that drops out of the window
+        slices[current] = recorder.getIntervalHistogram(slices[current]);
+    }
+
+    /**
+     * Merge of the most recent completed slices (1 = the last slice only)
+     */
+    synchronized Histogram merged(int sliceCount) {
+        Histogram result = new Histogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+        for (int i = 0; i < Math.min(sliceCount, slices.length) && current >= 0; i++) {
+            Histogram slice = slices[Math.floorMod(current - i, slices.length)];
+            if (slice != null) {
+                result.add(slice);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,189 @@
+package com.demo.gateway.proxy;
+
+import com.demo.gateway.cache.CachedResponse;
+import com.demo.gateway.cache.ResponseCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Proxying for small, hot, read-only responses (e.g. the product catalog):
+ * the downstream body is read as raw bytes and served from the gateway
+ * response cache while it is fresh. Concurrent misses for the same key are
+ * coalesced into a single downstream call, which may be hedged (see
+ * {@link RequestHedger}); buffering the body keeps a cancelled attempt from
+ * leaving a half-read response behind.
+ */
+@Component
+public class CachingProxy {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingProxy.class);
+
+    private static final String CACHE_HEADER = "X-Cache";
+    private static final byte[] EMPTY = new byte[0];
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
+    @Autowired
+    private RequestHedger requestHedger;
+
+    @Autowired
+    private RetryBudget retryBudget;
+
+    // Same threshold as server.compression, which handles streamed responses
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize compressionMinSize;
+
+    /**
+     * Serve from cache when possible; otherwise execute the request and cache a 200 response
+     */
+    public Mono<ResponseEntity<byte[]>> forward(String route, String key, WebClient.RequestHeadersSpec<?> request) {
+        return forward(route, key, request, 0, ClientPreferences.NONE, null, true);
+    }
+
+    /**
+     * Same as {@link #forward(String, String, WebClient.RequestHeadersSpec)}, retrying
+     * transport failures up to the given number of times within the retry budget. A 200 whose ETag the client
+     * already has becomes a 304; clients accepting gzip get the pre-compressed body. The cache is looked up
+     * and the call registered for coalescing when the result is subscribed, e.g. once the priority scheduler
+     * admits the request. Without coalesce the request never shares a downstream call with another one.
+     *
+     * @param deadline absolute System.nanoTime() deadline of the request (see {@link Deadlines}), null if none
+     */
+    public Mono<ResponseEntity<byte[]>> forward(String route, String key, WebClient.RequestHeadersSpec<?> request,
+                                                int retries, ClientPreferences preferences, Long deadline,
+                                                boolean coalesce) {
+        if (!responseCache.isCacheable(route)) {
+            Supplier<Mono<CachedResponse>> call = () -> hedgedFetch(route, request, retries);
+            return (coalesce ? requestCoalescer.coalesce(route, key, deadline, call) : Mono.defer(call))
+                    .map(response -> toEntity(response, "BYPASS", preferences));
+        }
+
+        return Mono.defer(() -> {
+            CachedResponse cached = responseCache.get(route, key);
+            if (cached != null) {
+                return Mono.just(toEntity(cached, "HIT", preferences));
+            }
+            Supplier<Mono<CachedResponse>> call = () -> fetchAndStore(route, key, request, retries);
+            return (coalesce ? requestCoalescer.coalesce(route, key, deadline, call) : Mono.defer(call))
+                    .map(response -> toEntity(response, "MISS", preferences));
+        });
+    }
+
+    private Mono<CachedResponse> fetchAndStore(String route, String key, WebClient.RequestHeadersSpec<?> request,
+                                               int retries) {
+        long generation = responseCache.generation(route);
+        return hedgedFetch(route, request, retries)
+                .map(response -> {
+                    if (response.getStatus().value() != HttpStatus.OK.value()) {
+                        return response;
+                    }
+                    // Compress once on the way into the cache rather than on every hit
+                    CachedResponse stored = isCompressible(response) ? response.withGzipBody(gzip(response.getBody())) : response;
+                    responseCache.put(route, key, stored, generation);
+                    return stored;
+                });
+    }
+
+    private Mono<CachedResponse> hedgedFetch(String route, WebClient.RequestHeadersSpec<?> request, int retries) {
+        // A hedge that failed (or was shed by the gateway) must not beat a primary that may still succeed
+        return requestHedger.hedge(route, () -> fetch(route, request, retries),
+                response -> !response.getStatus().is5xxServerError());
+    }
+
+    private Mono<CachedResponse> fetch(String route, WebClient.RequestHeadersSpec<?> request, int retries) {
+        Mono<ResponseEntity<byte[]>> exchange = request
+                .retrieve()
+                // Pass 4xx/5xx through with their original status and body instead of raising an error
+                .onStatus(status -> true, response -> Mono.empty())
+                .toEntity(byte[].class);
+        return retryBudget.withRetries(route, exchange, retries)
+                .map(entity -> {
+                    HttpHeaders headers = StreamingProxy.forwardableHeaders(entity.getHeaders());
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    byte[] body = entity.getBody() != null ? entity.getBody() : EMPTY;
+                    return new CachedResponse(entity.getStatusCode(), headers, body, responseCache.expiryFor(route));
+                })
+                .onErrorResume(WebClientRequestException.class, ex -> {
+                    HttpStatus status = DownstreamErrors.statusFor(ex);
+                    logger.warn("Downstream request failed - route={}, uri={}, status={}, error={}",
+                            route, ex.getUri(), status.value(), ex.getMessage());
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.setContentType(MediaType.APPLICATION_JSON);
+                    return Mono.just(new CachedResponse(status, headers,
+                            DownstreamErrors.body(status, "Downstream service did not respond"), 0L));
+                });
+    }
+
+    private static ResponseEntity<byte[]> toEntity(CachedResponse response, String cacheStatus,
+                                                   ClientPreferences preferences) {
+        String etag = response.getHeaders().getETag();
+        byte[] gzipBody = response.getGzipBody();
+
+        if (response.getStatus().value() == HttpStatus.OK.value() && preferences.notModified(etag)) {
+            ResponseEntity.HeadersBuilder<?> notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(gzipBody != null && preferences.acceptsGzip() ? ClientPreferences.gzipVariant(etag) : etag)
+                    .header(CACHE_HEADER, cacheStatus);
+            if (gzipBody != null) {
+                notModified.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            return notModified.build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getStatus())
+                .headers(response.getHeaders())
+                .header(CACHE_HEADER, cacheStatus);
+        if (gzipBody == null) {
+            return builder.body(response.getBody());
+        }
+        builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!preferences.acceptsGzip()) {
+            return builder.body(response.getBody());
+        }
+        // The compressed representation needs its own strong ETag
+        if (etag != null) {
+            builder.eTag(ClientPreferences.gzipVariant(etag));
+        }
+        return builder
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(gzipBody);
+    }
+
+    private boolean isCompressible(CachedResponse response) {
+        MediaType contentType = response.getHeaders().getContentType();
+        return response.getBody().length >= compressionMinSize.toBytes()
+                && response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING) == null
+                && contentType != null
+                && (MediaType.APPLICATION_JSON.isCompatibleWith(contentType) || "text".equals(contentType.getType()));
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
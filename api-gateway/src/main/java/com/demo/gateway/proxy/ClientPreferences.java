@@ -0,0 +1,70 @@
+package com.demo.gateway.proxy;
+
+/**
+ * What the client sent that affects how a buffered response is returned:
+ * the ETags it already has (If-None-Match) and whether it accepts gzip
+ */
+public final class ClientPreferences {
+
+    public static final ClientPreferences NONE = new ClientPreferences(null, false);
+
+    // Suffix added inside the quotes of an ETag for the gzip representation
+    static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+    private final String ifNoneMatch;
+    private final boolean acceptsGzip;
+
+    private ClientPreferences(String ifNoneMatch, boolean acceptsGzip) {
+        this.ifNoneMatch = ifNoneMatch;
+        this.acceptsGzip = acceptsGzip;
+    }
+
+    public static ClientPreferences of(String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        return ifNoneMatch == null && !gzip ? NONE : new ClientPreferences(ifNoneMatch, gzip);
+    }
+
+    boolean acceptsGzip() {
+        return acceptsGzip;
+    }
+
+    /**
+     * Weak comparison (RFC 9110 section 13.1.2) against the identity ETag of the
+     * resource, accepting the gzip variant of the same tag as well
+     */
+    boolean notModified(String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String current = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            tag = opaqueTag(tag);
+            if (tag.endsWith(GZIP_ETAG_SUFFIX)) {
+                tag = tag.substring(0, tag.length() - GZIP_ETAG_SUFFIX.length());
+            }
+            if (tag.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * ETag without W/ prefix and quotes
+     */
+    private static String opaqueTag(String etag) {
+        String tag = etag.startsWith("W/") ? etag.substring(2) : etag;
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        return tag;
+    }
+
+    static String gzipVariant(String etag) {
+        return etag.substring(0, etag.length() - 1) + GZIP_ETAG_SUFFIX + "\"";
+    }
+}
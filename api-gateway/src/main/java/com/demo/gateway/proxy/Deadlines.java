@@ -0,0 +1,97 @@
+package com.demo.gateway.proxy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request deadlines. Every downstream call carries X-Deadline-Ms, the time
+ * budget left when it was sent; backend services stop expensive work (DB
+ * writes, retry loops, follow-up calls) once it has run out, because nobody
+ * is waiting for the result any more.
+ *
+ * The budget is relative rather than a wall-clock instant so service clocks
+ * need not agree. Inside the gateway the deadline is an absolute nanoTime,
+ * taken from the client's own X-Deadline-Ms and the route timeout, whichever
+ * ends first; retries and hedges share it. nanoTime values may wrap, so
+ * deadlines are only ever compared by subtraction.
+ */
+public final class Deadlines {
+
+    private static final Logger logger = LoggerFactory.getLogger(Deadlines.class);
+
+    public static final String HEADER = "X-Deadline-Ms";
+
+    // WebClient request attribute: absolute System.nanoTime() deadline (Long)
+    public static final String ATTRIBUTE = "gateway.deadline";
+
+    // Longest client budget honoured where the route sets no timeout of its own
+    static final Duration MAX_CLIENT_BUDGET = Duration.ofMinutes(5);
+
+    private Deadlines() {
+    }
+
+    /**
+     * Deadline from the client's X-Deadline-Ms value and the route timeout (either may be null);
+     * null when neither applies and the downstream pool's response timeout is the only bound
+     */
+    public static Long of(String clientBudget, Duration timeout) {
+        long now = System.nanoTime();
+        long limit = (timeout != null ? timeout : MAX_CLIENT_BUDGET).toNanos();
+        Long budget = timeout != null ? limit : null;
+        if (clientBudget != null) {
+            try {
+                long millis = Math.max(0, Long.parseLong(clientBudget.trim()));
+                // Clamped as a duration, before adding now: a huge budget must not overflow past the route timeout
+                budget = Math.min(limit, TimeUnit.MILLISECONDS.toNanos(millis));
+            } catch (NumberFormatException e) {
+                logger.debug("Ignoring malformed {} header: {}", HEADER, clientBudget);
+            }
+        }
+        return budget != null ? now + budget : null;
+    }
+
+    /**
+     * Time left until the deadline, never less than 1ns (netty treats 0 as no timeout)
+     */
+    public static Duration remaining(long deadline) {
+        return Duration.ofNanos(Math.max(1, deadline - System.nanoTime()));
+    }
+
+    /**
+     * Stamps X-Deadline-Ms on each exchange of a downstream client, defaulting to the pool's
+     * response timeout, and answers 504 itself once the deadline has passed (e.g. for a retry)
+     */
+    public static ExchangeFilterFunction filter(String service, Duration defaultTimeout) {
+        return (request, next) -> Mono.defer(() -> {
+            long deadline = request.attribute(ATTRIBUTE)
+                    .map(Long.class::cast)
+                    .orElseGet(() -> System.nanoTime() + defaultTimeout.toNanos());
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                logger.debug("DEADLINE_EXCEEDED: service={}, method={}, uri={}", service, request.method(), request.url());
+                return Mono.just(expired(service));
+            }
+            return next.exchange(ClientRequest.from(request)
+                    .headers(headers -> headers.set(HEADER, Long.toString(remainingMillis)))
+                    .build());
+        });
+    }
+
+    private static ClientResponse expired(String service) {
+        return ClientResponse.create(HttpStatus.GATEWAY_TIMEOUT)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body("{\"error\":\"Gateway Timeout\",\"message\":\"Deadline exceeded before calling "
+                        + service + "-service\"}")
+                .build();
+    }
+}
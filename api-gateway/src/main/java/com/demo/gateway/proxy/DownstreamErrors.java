@@ -0,0 +1,28 @@
+package com.demo.gateway.proxy;
+
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Error responses produced by the gateway itself when a downstream call fails
+ */
+final class DownstreamErrors {
+
+    private DownstreamErrors() {
+    }
+
+    /**
+     * Response timeouts map to 504, connection failures to 502
+     */
+    static HttpStatus statusFor(WebClientRequestException ex) {
+        return ex.getCause() instanceof ReadTimeoutException ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.BAD_GATEWAY;
+    }
+
+    static byte[] body(HttpStatus status, String message) {
+        return ("{\"error\":\"" + status.getReasonPhrase() + "\",\"message\":\"" + message + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,75 @@
+package com.demo.gateway.proxy;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Settings for hedged requests (gateway.hedging.*). Hedging is opt-in per
+ * route and only meant for idempotent GETs.
+ */
+@Component
+@ConfigurationProperties("gateway.hedging")
+public class HedgingProperties {
+
+    private boolean enabled = true;
+
+    // Routes that may be hedged, e.g. gateway.hedging.routes=product-detail,cart
+    private Set<String> routes = new HashSet<>();
+
+    // Send the second attempt once the first is slower than this latency percentile of the route
+    private double percentile = 0.95;
+
+    // Never hedge sooner than this, and not before the route has enough latency samples
+    private Duration minDelay = Duration.ofMillis(10);
+    private int minSamples = 100;
+
+    public boolean isHedged(String route) {
+        return enabled && routes.contains(route);
+    }
+
+    // Getters and Setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Set<String> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Set<String> routes) {
+        this.routes = routes;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+}
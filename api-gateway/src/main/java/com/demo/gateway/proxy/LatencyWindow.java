@@ -0,0 +1,51 @@
+package com.demo.gateway.proxy;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latencies of the most recent calls of one route in a fixed-size ring, with
+ * a percentile that is recomputed every few samples rather than on every read.
+ */
+final class LatencyWindow {
+
+    private static final int SIZE = 1024;
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final AtomicLongArray samples = new AtomicLongArray(SIZE);
+    private final AtomicLong count = new AtomicLong();
+    private final double percentile;
+
+    private volatile long percentileNanos;
+
+    LatencyWindow(double percentile) {
+        this.percentile = percentile;
+    }
+
+    void record(long nanos) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % SIZE), nanos);
+        if ((n + 1) % RECOMPUTE_EVERY == 0) {
+            recompute(Math.min(n + 1, SIZE));
+        }
+    }
+
+    private void recompute(long filled) {
+        long[] sorted = new long[(int) filled];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        percentileNanos = sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    long count() {
+        return count.get();
+    }
+
+    long percentileNanos() {
+        return percentileNanos;
+    }
+}
@@ -0,0 +1,99 @@
+package com.demo.gateway.proxy;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Traffic mirroring settings (gateway.mirror.*): a candidate base URL per
+ * downstream service and a sample ratio per route id, e.g.
+ * gateway.mirror.targets.product=http://localhost:9081
+ * gateway.mirror.routes.product-list=0.1
+ */
+@Component
+@ConfigurationProperties("gateway.mirror")
+public class MirrorProperties {
+
+    private boolean enabled = false;
+
+    // Candidate base URL per service (product, cart, order); routes of other services are not mirrored
+    private Map<String, String> targets = new HashMap<>();
+
+    // Fraction of each route's requests copied to the candidate (0..1)
+    private Map<String, Double> routes = new HashMap<>();
+
+    // Non-GET requests have side effects; only mirror them when the candidate has its own database
+    private boolean includeWrites = false;
+
+    // Mirrored calls in flight at once; beyond that samples are skipped rather than queued
+    private int maxInFlight = 100;
+
+    // Connections to the candidate and how long a mirrored call may take
+    private int maxConnections = 50;
+    private Duration timeout = Duration.ofSeconds(5);
+
+    public double sampleRatio(String route) {
+        return enabled ? routes.getOrDefault(route, 0.0) : 0.0;
+    }
+
+    // Getters and Setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, String> getTargets() {
+        return targets;
+    }
+
+    public void setTargets(Map<String, String> targets) {
+        this.targets = targets;
+    }
+
+    public Map<String, Double> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Double> routes) {
+        this.routes = routes;
+    }
+
+    public boolean isIncludeWrites() {
+        return includeWrites;
+    }
+
+    public void setIncludeWrites(boolean includeWrites) {
+        this.includeWrites = includeWrites;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
@@ -0,0 +1,53 @@
+package com.demo.gateway.proxy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token budget that caps extra downstream calls at a fixed fraction of
+ * requests: each downstream call deposits ratio tokens, each extra call
+ * withdraws one, and at most burst tokens are banked. Kept in thousandths of
+ * a token in a single AtomicLong, so both operations are lock-free.
+ *
+ * One instance is shared by RetryBudget and RequestHedger, so retries and
+ * hedges together stay within gateway.budget.ratio of the traffic.
+ */
+@Component
+public final class RequestBudget {
+
+    private static final long MILLI_TOKEN = 1000;
+
+    private final long earned;
+    private final long cap;
+    private final AtomicLong balance = new AtomicLong();
+
+    @Autowired
+    public RequestBudget(@Value("${gateway.budget.ratio:0.1}") double ratio,
+                         @Value("${gateway.budget.burst:20}") int burst) {
+        this.earned = (long) (ratio * MILLI_TOKEN);
+        this.cap = burst * MILLI_TOKEN;
+    }
+
+    void deposit() {
+        balance.getAndUpdate(current -> Math.min(cap, current + earned));
+    }
+
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < MILLI_TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - MILLI_TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    double available() {
+        return balance.get() / (double) MILLI_TOKEN;
+    }
+}
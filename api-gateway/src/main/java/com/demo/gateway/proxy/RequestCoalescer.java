@@ -0,0 +1,122 @@
+package com.demo.gateway.proxy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing of identical idempotent requests: while a downstream
+ * call for a (route, key) is in flight, further identical requests subscribe to
+ * that same call instead of issuing their own. The entry is removed as soon as
+ * the call terminates, so nothing is cached beyond the flight itself.
+ *
+ * A flight is registered when it is subscribed, not when the pipeline is
+ * assembled, so a request still queued (or shed) by the priority scheduler is
+ * never joined. A request only joins a flight that ends no later than its own
+ * deadline; one with a shorter deadline, or arriving after the flight's
+ * deadline has passed, makes its own call instead.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final Map<String, InFlight<?>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, RouteStats> stats = new ConcurrentHashMap<>();
+
+    @Value("${gateway.coalescing.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * The call, or an identical one already in flight
+     *
+     * @param deadline absolute System.nanoTime() deadline of this request (see {@link Deadlines}), null if none
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> coalesce(String route, String key, Long deadline, Supplier<Mono<T>> call) {
+        RouteStats routeStats = stats.computeIfAbsent(route, name -> new RouteStats());
+        String flightKey = route + "|" + key;
+        return Mono.defer(() -> {
+            routeStats.requests.increment();
+            if (!enabled) {
+                routeStats.downstreamCalls.increment();
+                return call.get();
+            }
+
+            InFlight<T> candidate = new InFlight<>(deadline);
+            candidate.shared = Mono.defer(call)
+                    .doFinally(signal -> inFlight.remove(flightKey, candidate))
+                    .share();
+
+            InFlight<T> existing = (InFlight<T>) inFlight.putIfAbsent(flightKey, candidate);
+            if (existing == null) {
+                routeStats.downstreamCalls.increment();
+                return candidate.shared;
+            }
+            if (existing.canServe(deadline)) {
+                routeStats.coalesced.increment();
+                return existing.shared;
+            }
+            // Not registered: the flight in progress keeps the slot for later identical requests
+            routeStats.downstreamCalls.increment();
+            routeStats.deadlineMismatches.increment();
+            return call.get();
+        });
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("inFlight", inFlight.size());
+
+        Map<String, Object> routes = new LinkedHashMap<>();
+        stats.forEach((route, routeStats) -> {
+            long requests = routeStats.requests.sum();
+            long coalesced = routeStats.coalesced.sum();
+            Map<String, Object> counters = new LinkedHashMap<>();
+            counters.put("requests", requests);
+            counters.put("downstreamCalls", routeStats.downstreamCalls.sum());
+            counters.put("coalesced", coalesced);
+            counters.put("deadlineMismatches", routeStats.deadlineMismatches.sum());
+            // Share of requests that did not need their own downstream call
+            counters.put("coalescingRatio", requests > 0 ? (double) coalesced / requests : 0.0);
+            routes.put(route, counters);
+        });
+        result.put("routes", routes);
+        return result;
+    }
+
+    private static class InFlight<T> {
+        private final Long deadline;
+        private Mono<T> shared;
+
+        InFlight(Long deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * Whether a request with the given deadline may wait for this flight: it must end no later
+         * than the request's own deadline (null is no deadline) and must not have run out of time already
+         */
+        boolean canServe(Long requestDeadline) {
+            if (deadline == null) {
+                return requestDeadline == null;
+            }
+            if (deadline - System.nanoTime() <= 0) {
+                return false;
+            }
+            return requestDeadline == null || requestDeadline - deadline >= 0;
+        }
+    }
+
+    private static class RouteStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder downstreamCalls = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder deadlineMismatches = new LongAdder();
+    }
+}
@@ -0,0 +1,128 @@
+package com.demo.gateway.proxy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests for idempotent routes: if the first attempt has not answered
+ * within the route's tracked latency percentile (p95 by default), a second
+ * identical attempt is sent and whichever answers first wins; the other is
+ * cancelled. This cuts tail latency caused by a single slow response (GC
+ * pause, lock wait) at the price of a few extra backend calls.
+ *
+ * Hedges spend from the RequestBudget shared with retries, so together they
+ * cannot double the load on a backend that is slow for everyone.
+ */
+@Component
+public class RequestHedger {
+
+    private final HedgingProperties properties;
+    private final Map<String, RouteHedging> routes = new ConcurrentHashMap<>();
+
+    // Downstream calls earn into it (see RetryBudget), each hedge costs one
+    private final RequestBudget budget;
+    private final LongAdder budgetDenied = new LongAdder();
+
+    @Autowired
+    public RequestHedger(HedgingProperties properties, RequestBudget budget) {
+        this.properties = properties;
+        this.budget = budget;
+    }
+
+    /**
+     * Run the attempt, hedging it if the route is configured for it. A hedge
+     * result is only taken if it is accepted (e.g. not a 5xx); otherwise the
+     * first attempt's answer is awaited.
+     */
+    public <T> Mono<T> hedge(String route, Supplier<Mono<T>> attempt, Predicate<T> acceptHedge) {
+        if (!properties.isHedged(route)) {
+            return Mono.defer(attempt);
+        }
+        RouteHedging hedging = routes.computeIfAbsent(route, name -> new RouteHedging(properties.getPercentile()));
+        hedging.requests.increment();
+
+        Duration delay = hedging.delay();
+        Mono<T> primary = timed(hedging, attempt, true);
+        if (delay == null) {
+            return primary;
+        }
+
+        Mono<T> secondary = Mono.delay(delay)
+                .flatMap(tick -> {
+                    if (!budget.tryWithdraw()) {
+                        budgetDenied.increment();
+                        return Mono.empty();
+                    }
+                    hedging.hedged.increment();
+                    return timed(hedging, attempt, false)
+                            .filter(acceptHedge)
+                            .doOnNext(result -> hedging.hedgeWins.increment());
+                });
+        return Mono.firstWithValue(primary, secondary);
+    }
+
+    private <T> Mono<T> timed(RouteHedging hedging, Supplier<Mono<T>> attempt, boolean recordIfCancelled) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Mono<T> call = Mono.defer(attempt).doOnNext(result -> hedging.latency.record(System.nanoTime() - start));
+            // A primary that lost to its hedge was at least this slow; dropping it would skew the percentile low
+            return recordIfCancelled
+                    ? call.doOnCancel(() -> hedging.latency.record(System.nanoTime() - start))
+                    : call;
+        });
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("budgetAvailable", budget.available());
+        result.put("budgetDenied", budgetDenied.sum());
+
+        Map<String, Object> routeStats = new LinkedHashMap<>();
+        routes.forEach((route, hedging) -> {
+            long requests = hedging.requests.sum();
+            long hedged = hedging.hedged.sum();
+            Duration delay = hedging.delay();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", requests);
+            stats.put("hedged", hedged);
+            stats.put("hedgeWins", hedging.hedgeWins.sum());
+            stats.put("hedgeRate", requests > 0 ? (double) hedged / requests : 0.0);
+            stats.put("hedgeDelayMs", delay != null ? delay.toNanos() / 1_000_000.0 : null);
+            routeStats.put(route, stats);
+        });
+        result.put("routes", routeStats);
+        return result;
+    }
+
+    private class RouteHedging {
+        private final LatencyWindow latency;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder hedged = new LongAdder();
+        private final LongAdder hedgeWins = new LongAdder();
+
+        RouteHedging(double percentile) {
+            this.latency = new LatencyWindow(percentile);
+        }
+
+        /**
+         * Current hedge delay, or null while there are too few samples to trust the percentile
+         */
+        Duration delay() {
+            if (latency.count() < properties.getMinSamples()) {
+                return null;
+            }
+            long nanos = Math.max(properties.getMinDelay().toNanos(), latency.percentileNanos());
+            return Duration.ofNanos(nanos);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.demo.gateway.proxy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retries of idempotent downstream calls, shared by all proxied routes. Only
+ * transport failures (connect errors, response timeouts) are retried; any HTTP
+ * response is final.
+ *
+ * Every downstream call earns its share of the RequestBudget shared with
+ * hedging and every retry spends one, so when a backend fails for everyone
+ * retries stop at roughly gateway.budget.ratio of traffic instead of multiplying it. Backoff is exponential with
+ * jitter and waits on the Reactor timer, not on a request thread.
+ */
+@Component
+public class RetryBudget {
+
+    private final RetryProperties properties;
+    private final RequestBudget budget;
+    private final Map<String, RouteRetries> routes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RetryBudget(RetryProperties properties, RequestBudget budget) {
+        this.properties = properties;
+        this.budget = budget;
+    }
+
+    /**
+     * The exchange, retried up to the given number of times while the budget allows
+     */
+    public <T> Mono<T> withRetries(String route, Mono<T> exchange, int retries) {
+        if (!properties.isEnabled()) {
+            // Calls still earn budget for hedging
+            return Mono.defer(() -> {
+                budget.deposit();
+                return exchange;
+            });
+        }
+        RouteRetries stats = routes.computeIfAbsent(route, name -> new RouteRetries());
+        Mono<T> attempts = retries > 0 ? exchange.retryWhen(retry(stats, retries)) : exchange;
+        return Mono.defer(() -> {
+            stats.requests.increment();
+            budget.deposit();
+            return attempts;
+        });
+    }
+
+    private Retry retry(RouteRetries stats, int retries) {
+        return Retry.from(signals -> signals.concatMap(signal -> {
+            Throwable failure = signal.failure();
+            if (!(failure instanceof WebClientRequestException) || signal.totalRetries() >= retries) {
+                return Mono.error(failure);
+            }
+            if (!budget.tryWithdraw()) {
+                stats.denied.increment();
+                return Mono.error(failure);
+            }
+            stats.retried.increment();
+            return Mono.delay(backoff(signal.totalRetries()));
+        }));
+    }
+
+    private Duration backoff(long retry) {
+        long max = properties.getMaxBackoff().toNanos();
+        long nanos = Math.min(max, properties.getMinBackoff().toNanos() << Math.min(retry, 30));
+        long lowest = (long) (nanos * (1 - Math.max(0, Math.min(1, properties.getJitter()))));
+        return Duration.ofNanos(lowest < nanos ? ThreadLocalRandom.current().nextLong(lowest, nanos + 1) : nanos);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("budgetAvailable", budget.available());
+
+        Map<String, Object> routeStats = new LinkedHashMap<>();
+        routes.forEach((route, retries) -> {
+            long requests = retries.requests.sum();
+            long retried = retries.retried.sum();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", requests);
+            stats.put("retried", retried);
+            stats.put("denied", retries.denied.sum());
+            stats.put("retryRate", requests > 0 ? (double) retried / requests : 0.0);
+            routeStats.put(route, stats);
+        });
+        result.put("routes", routeStats);
+        return result;
+    }
+
+    private static class RouteRetries {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder retried = new LongAdder();
+        private final LongAdder denied = new LongAdder();
+    }
+}
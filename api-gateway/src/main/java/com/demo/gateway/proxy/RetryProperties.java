@@ -0,0 +1,59 @@
+package com.demo.gateway.proxy;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings for downstream retries (gateway.retry.*). How many times a route
+ * may retry is set per route (gateway.routing.routes[n].retries); these
+ * settings bound retries across all routes.
+ */
+@Component
+@ConfigurationProperties("gateway.retry")
+public class RetryProperties {
+
+    private boolean enabled = true;
+
+    // Exponential backoff: minBackoff, 2x per retry, capped at maxBackoff
+    private Duration minBackoff = Duration.ofMillis(50);
+    private Duration maxBackoff = Duration.ofSeconds(1);
+
+    // Each delay is drawn at random from [(1 - jitter) * backoff, backoff], so retries do not line up
+    private double jitter = 0.5;
+
+    // Getters and Setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getMinBackoff() {
+        return minBackoff;
+    }
+
+    public void setMinBackoff(Duration minBackoff) {
+        this.minBackoff = minBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+}
@@ -0,0 +1,120 @@
+package com.demo.gateway.proxy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Pass-through proxying: the downstream body is streamed to the client as raw
+ * DataBuffers, without charset decoding or aggregating it in memory. Netty
+ * writes each buffer as it arrives and releases it, with backpressure back to
+ * the downstream connection, and a client disconnect cancels the downstream
+ * call. Downstream status codes and end-to-end headers are preserved, so
+ * gateway heap use stays flat no matter how large the payload is.
+ */
+@Component
+public class StreamingProxy {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingProxy.class);
+
+    // Hop-by-hop headers (RFC 7230 section 6.1) must not be forwarded by a proxy;
+    // CORS headers are owned by the gateway's CorsWebFilter (CorsConfig)
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization",
+            "te", "trailer", "transfer-encoding", "upgrade");
+
+    @Autowired
+    private RetryBudget retryBudget;
+
+    /**
+     * Execute the request and stream the downstream response back unchanged
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> forward(WebClient.RequestHeadersSpec<?> request) {
+        return stream(exchange(request));
+    }
+
+    /**
+     * Same as {@link #forward(WebClient.RequestHeadersSpec)}, retrying transport failures
+     * up to the given number of times within the retry budget (only for idempotent requests)
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> forward(String route, WebClient.RequestHeadersSpec<?> request,
+                                                          int retries) {
+        return stream(retryBudget.withRetries(route, exchange(request), retries));
+    }
+
+    private static Mono<ResponseEntity<Flux<DataBuffer>>> exchange(WebClient.RequestHeadersSpec<?> request) {
+        return request
+                .retrieve()
+                // Pass 4xx/5xx through with their original status and body instead of raising an error
+                .onStatus(status -> true, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class);
+    }
+
+    private static Mono<ResponseEntity<Flux<DataBuffer>>> stream(Mono<ResponseEntity<Flux<DataBuffer>>> exchange) {
+        return exchange
+                .map(response -> ResponseEntity
+                        .status(response.getStatusCode())
+                        .headers(forwardableHeaders(response.getHeaders()))
+                        .body(response.getBody() != null ? response.getBody() : Flux.<DataBuffer>empty()))
+                .onErrorResume(WebClientRequestException.class, ex -> Mono.just(downstreamUnavailable(ex)));
+    }
+
+    /**
+     * Copy downstream response headers, dropping hop-by-hop and CORS headers
+     */
+    public static HttpHeaders forwardableHeaders(HttpHeaders downstream) {
+        HttpHeaders headers = new HttpHeaders();
+        downstream.forEach((name, values) -> {
+            String lower = name.toLowerCase();
+            if (!HOP_BY_HOP_HEADERS.contains(lower) && !lower.startsWith("access-control-")) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
+
+    /**
+     * A body produced by the gateway itself (errors, buffered responses) as a single buffer, without copying
+     */
+    public static Flux<DataBuffer> bytes(byte[] body) {
+        return Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+    }
+
+    /**
+     * A response the gateway holds in memory (cached, aggregated, rejected) in streaming form;
+     * the length is known, so keep Content-Length
+     */
+    public static ResponseEntity<Flux<DataBuffer>> buffered(ResponseEntity<byte[]> response) {
+        if (response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(response.getHeaders()).build();
+        }
+        byte[] body = response.getBody() != null ? response.getBody() : new byte[0];
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .contentLength(body.length)
+                .body(bytes(body));
+    }
+
+    private static ResponseEntity<Flux<DataBuffer>> downstreamUnavailable(WebClientRequestException ex) {
+        HttpStatus status = DownstreamErrors.statusFor(ex);
+        logger.warn("Downstream request failed - uri={}, status={}, error={}", ex.getUri(), status.value(), ex.getMessage());
+
+        byte[] body = DownstreamErrors.body(status, "Downstream service did not respond");
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(bytes(body));
+    }
+}
@@ -0,0 +1,294 @@
+package com.demo.gateway.proxy;
+
+import com.demo.gateway.routing.CompiledRoute;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Shadow traffic for trying a candidate build of a backend on real requests.
+ * A sample of each configured route's requests (gateway.mirror.*) is copied
+ * to the candidate's base URL when the primary call starts; the candidate's
+ * response is read and discarded.
+ *
+ * The primary path never waits for the candidate: the copy is a separate,
+ * fire-and-forget exchange on its own connection pool, capped at max-in-flight
+ * (extra samples are skipped) and bounded by its own timeout. The primary
+ * body is only observed as it streams to the client, via a running CRC32, and
+ * compared with the candidate's once both are complete. Per route, side-by-side
+ * backend latency (time to response headers) and status / body equality
+ * counts are kept since startup.
+ */
+@Component
+public class TrafficMirror {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrafficMirror.class);
+
+    // Sent on mirrored requests so the candidate can tell shadow traffic apart
+    private static final String MIRROR_HEADER = "X-Gateway-Mirror";
+
+    // Checksum placeholders for bodies that cannot be compared (CRC32 values are never negative)
+    private static final long NOT_COMPARABLE = -1;
+    private static final long INCOMPLETE = -2;
+
+    private final MirrorProperties properties;
+    private final WebClient client;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<String, RouteStats> stats = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TrafficMirror(MirrorProperties properties, @Qualifier("mirrorWebClient") WebClient client) {
+        this.properties = properties;
+        this.client = client;
+    }
+
+    /**
+     * The primary call, copied to the route's candidate when the request is sampled
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> mirror(CompiledRoute route, String[] values, String query,
+                                                         Function<String, String> headers, byte[] body,
+                                                         AtomicLong upstreamTime,
+                                                         Mono<ResponseEntity<Flux<DataBuffer>>> primary) {
+        double ratio = properties.sampleRatio(route.getId());
+        if (ratio <= 0) {
+            return primary;
+        }
+        String target = properties.getTargets().get(route.getService());
+        if (target == null || (!HttpMethod.GET.equals(route.getMethod()) && !properties.isIncludeWrites())
+                || ThreadLocalRandom.current().nextDouble() >= ratio) {
+            return primary;
+        }
+        RouteStats routeStats = stats.computeIfAbsent(route.getId(), id -> new RouteStats());
+        Shadow shadow = new Shadow(route.getId(), routeStats);
+        return primary
+                .doOnSubscribe(subscription -> send(route, target, values, query, headers, body, shadow))
+                .map(response -> shadow.observe(response, upstreamTime.get()));
+    }
+
+    private void send(CompiledRoute route, String target, String[] values, String query,
+                      Function<String, String> headers, byte[] body, Shadow shadow) {
+        if (inFlight.incrementAndGet() > properties.getMaxInFlight()) {
+            inFlight.decrementAndGet();
+            shadow.stats.skipped.increment();
+            shadow.skip();
+            return;
+        }
+        shadow.stats.mirrored.increment();
+
+        WebClient.RequestBodySpec spec = client
+                .method(route.getMethod())
+                .uri(URI.create(route.targetUri(target, values, query)))
+                .header(MIRROR_HEADER, "true");
+        for (String header : route.getForwardHeaders()) {
+            String value = headers.apply(header);
+            if (value != null) {
+                spec = spec.header(header, value);
+            }
+        }
+        WebClient.RequestHeadersSpec<?> exchange = spec;
+        if (body != null && body.length > 0) {
+            String contentType = headers.apply(HttpHeaders.CONTENT_TYPE);
+            exchange = spec
+                    .header(HttpHeaders.CONTENT_TYPE, contentType != null ? contentType : MediaType.APPLICATION_JSON_VALUE)
+                    .bodyValue(body);
+        }
+
+        long start = System.nanoTime();
+        exchange
+                .exchangeToMono(response -> {
+                    shadow.stats.candidateLatency.recordValue(System.nanoTime() - start);
+                    int status = response.statusCode().value();
+                    boolean comparable = response.headers().header(HttpHeaders.CONTENT_ENCODING).isEmpty();
+                    CRC32 crc = new CRC32();
+                    return response.bodyToFlux(DataBuffer.class)
+                            .doOnNext(buffer -> {
+                                update(crc, buffer);
+                                DataBufferUtils.release(buffer);
+                            })
+                            .then(Mono.fromRunnable(() ->
+                                    shadow.candidateDone(status, comparable ? crc.getValue() : NOT_COMPARABLE)));
+                })
+                .timeout(properties.getTimeout())
+                .doFinally(signal -> inFlight.decrementAndGet())
+                .subscribe(null, ex -> {
+                    shadow.stats.candidateErrors.increment();
+                    shadow.skip();
+                    logger.debug("MIRROR_ERROR: route={}, target={}, error={}", shadow.route, target, ex.toString());
+                });
+    }
+
+    private static void update(CRC32 crc, DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            iterator.forEachRemaining(crc::update);
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("targets", properties.getTargets());
+        result.put("inFlight", inFlight.get());
+        Map<String, Object> routes = new TreeMap<>();
+        stats.forEach((route, routeStats) -> routes.put(route, routeStats.snapshot()));
+        result.put("routes", routes);
+        return result;
+    }
+
+    /**
+     * The primary and candidate outcome of one mirrored request; compared once both are known
+     */
+    private static final class Shadow {
+        private final String route;
+        private final RouteStats stats;
+
+        private boolean skipped;
+        private boolean primaryDone;
+        private boolean candidateDone;
+        private int primaryStatus;
+        private int candidateStatus;
+        private long primaryCrc;
+        private long candidateCrc;
+
+        Shadow(String route, RouteStats stats) {
+            this.route = route;
+            this.stats = stats;
+        }
+
+        /**
+         * Record the primary status and backend time, and checksum its body as it is written
+         */
+        ResponseEntity<Flux<DataBuffer>> observe(ResponseEntity<Flux<DataBuffer>> response, long upstreamNanos) {
+            if (isSkipped()) {
+                return response;
+            }
+            // Zero when served from the gateway cache or a coalesced call: no backend time to compare
+            if (upstreamNanos > 0) {
+                stats.primaryLatency.recordValue(upstreamNanos);
+            }
+            int status = response.getStatusCode().value();
+            Flux<DataBuffer> body = response.getBody();
+            if (status == HttpStatus.NOT_MODIFIED.value() || body == null
+                    || response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                // 304s and pre-compressed cache variants have no body comparable to the candidate's
+                primaryDone(status, NOT_COMPARABLE);
+                return response;
+            }
+            CRC32 crc = new CRC32();
+            Flux<DataBuffer> observed = body
+                    .doOnNext(buffer -> update(crc, buffer))
+                    .doOnComplete(() -> primaryDone(status, crc.getValue()))
+                    .doOnCancel(() -> primaryDone(status, INCOMPLETE))
+                    .doOnError(ex -> primaryDone(status, INCOMPLETE));
+            return new ResponseEntity<>(observed, response.getHeaders(), response.getStatusCode());
+        }
+
+        synchronized boolean isSkipped() {
+            return skipped;
+        }
+
+        synchronized void skip() {
+            skipped = true;
+        }
+
+        synchronized void primaryDone(int status, long crc) {
+            if (primaryDone) {
+                return;
+            }
+            primaryDone = true;
+            primaryStatus = status;
+            primaryCrc = crc;
+            compareIfComplete();
+        }
+
+        synchronized void candidateDone(int status, long crc) {
+            candidateDone = true;
+            candidateStatus = status;
+            candidateCrc = crc;
+            compareIfComplete();
+        }
+
+        private void compareIfComplete() {
+            if (!primaryDone || !candidateDone || skipped) {
+                return;
+            }
+            if (primaryStatus == candidateStatus) {
+                stats.statusMatches.increment();
+            } else {
+                stats.statusMismatches.increment();
+                logger.debug("MIRROR_STATUS_MISMATCH: route={}, primary={}, candidate={}",
+                        route, primaryStatus, candidateStatus);
+            }
+            if (primaryCrc < 0 || candidateCrc < 0) {
+                stats.bodyNotCompared.increment();
+            } else if (primaryCrc == candidateCrc) {
+                stats.bodyMatches.increment();
+            } else {
+                stats.bodyMismatches.increment();
+                logger.debug("MIRROR_BODY_MISMATCH: route={}, status={}", route, primaryStatus);
+            }
+        }
+    }
+
+    private static final class RouteStats {
+        private final LongAdder mirrored = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder candidateErrors = new LongAdder();
+        private final LongAdder statusMatches = new LongAdder();
+        private final LongAdder statusMismatches = new LongAdder();
+        private final LongAdder bodyMatches = new LongAdder();
+        private final LongAdder bodyMismatches = new LongAdder();
+        private final LongAdder bodyNotCompared = new LongAdder();
+        private final ConcurrentHistogram primaryLatency = new ConcurrentHistogram(3);
+        private final ConcurrentHistogram candidateLatency = new ConcurrentHistogram(3);
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("mirrored", mirrored.sum());
+            result.put("skipped", skipped.sum());
+            result.put("candidateErrors", candidateErrors.sum());
+            result.put("statusMatches", statusMatches.sum());
+            result.put("statusMismatches", statusMismatches.sum());
+            result.put("bodyMatches", bodyMatches.sum());
+            result.put("bodyMismatches", bodyMismatches.sum());
+            result.put("bodyNotCompared", bodyNotCompared.sum());
+            result.put("primaryMs", latency(primaryLatency));
+            result.put("candidateMs", latency(candidateLatency));
+            return result;
+        }
+
+        private static Map<String, Object> latency(ConcurrentHistogram histogram) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("count", histogram.getTotalCount());
+            result.put("p50", histogram.getValueAtPercentile(50) / 1_000_000.0);
+            result.put("p90", histogram.getValueAtPercentile(90) / 1_000_000.0);
+            result.put("p99", histogram.getValueAtPercentile(99) / 1_000_000.0);
+            result.put("max", histogram.getMaxValue() / 1_000_000.0);
+            return result;
+        }
+    }
+}
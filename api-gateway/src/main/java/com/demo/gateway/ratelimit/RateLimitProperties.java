@@ -0,0 +1,93 @@
+package com.demo.gateway.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token-bucket limits per route id, e.g.
+ * gateway.rate-limit.routes.cart-add-item.per-user-rate=5
+ */
+@Component
+@ConfigurationProperties("gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Per-user buckets untouched for this long are dropped (they are full again by then)
+    private Duration idleTimeout = Duration.ofMinutes(2);
+
+    private Map<String, Limit> routes = new HashMap<>();
+
+    // Getters and Setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Map<String, Limit> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Limit> routes) {
+        this.routes = routes;
+    }
+
+    public static class Limit {
+
+        // Requests per second and bucket size for each user (userId path variable or X-Session-ID); 0 = off
+        private double perUserRate = 0;
+        private int perUserBurst = 1;
+
+        // Requests per second and bucket size for the route as a whole; 0 = off
+        private double routeRate = 0;
+        private int routeBurst = 1;
+
+        public double getPerUserRate() {
+            return perUserRate;
+        }
+
+        public void setPerUserRate(double perUserRate) {
+            this.perUserRate = perUserRate;
+        }
+
+        public int getPerUserBurst() {
+            return perUserBurst;
+        }
+
+        public void setPerUserBurst(int perUserBurst) {
+            this.perUserBurst = perUserBurst;
+        }
+
+        public double getRouteRate() {
+            return routeRate;
+        }
+
+        public void setRouteRate(double routeRate) {
+            this.routeRate = routeRate;
+        }
+
+        public int getRouteBurst() {
+            return routeBurst;
+        }
+
+        public void setRouteBurst(int routeBurst) {
+            this.routeBurst = routeBurst;
+        }
+    }
+}
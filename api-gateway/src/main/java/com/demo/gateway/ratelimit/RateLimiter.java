@@ -0,0 +1,162 @@
+package com.demo.gateway.ratelimit;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token-bucket rate limits per route and per user (see RateLimitProperties).
+ *
+ * A check is a map lookup plus one CAS on the user's bucket and one on the
+ * route's bucket (and a refund of the user's token if the route rejects); the only allocation is a new bucket the first time a user is
+ * seen. Buckets of users that went quiet are full again and carry no state
+ * worth keeping, so a background sweep drops them and the map stays sized to
+ * the recently active users rather than to every user ever seen.
+ */
+@Component
+public class RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+    private final RateLimitProperties properties;
+    // Built once at startup, read-only afterwards
+    private final Map<String, RouteLimits> routes = new HashMap<>();
+    private final ScheduledExecutorService sweeper;
+    private final LongAdder evicted = new LongAdder();
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties) {
+        this.properties = properties;
+        long now = System.nanoTime();
+        properties.getRoutes().forEach((route, limit) -> routes.put(route, new RouteLimits(limit, now)));
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMillis = Math.max(1000, properties.getIdleTimeout().toMillis() / 2);
+        sweeper.scheduleWithFixedDelay(this::evictIdle, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Take a token for the route and, if given, the user.
+     *
+     * @return 0 if the request may proceed, otherwise nanos until it would be allowed
+     */
+    public long tryAcquire(String route, String user) {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        RouteLimits limits = routes.get(route);
+        if (limits == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+
+        // Per-user first, so a single noisy user does not use up the route's shared capacity
+        TokenBucket userBucket = null;
+        if (user != null && limits.userInterval > 0) {
+            userBucket = limits.users.get(user);
+            if (userBucket == null) {
+                userBucket = limits.users.computeIfAbsent(user, key -> new TokenBucket(now));
+            }
+            long wait = userBucket.tryAcquire(now, limits.userInterval, limits.userTolerance);
+            if (wait > 0) {
+                limits.limitedPerUser.increment();
+                return wait;
+            }
+        }
+        if (limits.routeBucket != null) {
+            long wait = limits.routeBucket.tryAcquire(now, limits.routeInterval, limits.routeTolerance);
+            if (wait > 0) {
+                // The request is not sent, so it must not count against the user's own limit
+                if (userBucket != null) {
+                    userBucket.refund(limits.userInterval);
+                }
+                limits.limitedRoute.increment();
+                return wait;
+            }
+        }
+        limits.allowed.increment();
+        return 0;
+    }
+
+    private void evictIdle() {
+        try {
+            long now = System.nanoTime();
+            long idleNanos = properties.getIdleTimeout().toNanos();
+            routes.values().forEach(limits -> {
+                int before = limits.users.size();
+                limits.users.values().removeIf(bucket -> bucket.idleFor(now, idleNanos));
+                evicted.add(Math.max(0, before - limits.users.size()));
+            });
+        } catch (Exception e) {
+            logger.warn("Rate limit bucket sweep failed - error={}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("evictedUsers", evicted.sum());
+
+        Map<String, Object> perRoute = new LinkedHashMap<>();
+        routes.forEach((route, limits) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("perUserRate", limits.limit.getPerUserRate());
+            stats.put("perUserBurst", limits.limit.getPerUserBurst());
+            stats.put("routeRate", limits.limit.getRouteRate());
+            stats.put("routeBurst", limits.limit.getRouteBurst());
+            stats.put("trackedUsers", limits.users.size());
+            stats.put("allowed", limits.allowed.sum());
+            stats.put("limitedPerUser", limits.limitedPerUser.sum());
+            stats.put("limitedRoute", limits.limitedRoute.sum());
+            perRoute.put(route, stats);
+        });
+        result.put("routes", perRoute);
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private static class RouteLimits {
+        private final RateLimitProperties.Limit limit;
+        private final long userInterval;
+        private final long userTolerance;
+        private final long routeInterval;
+        private final long routeTolerance;
+        private final TokenBucket routeBucket;
+        private final Map<String, TokenBucket> users = new ConcurrentHashMap<>();
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder limitedPerUser = new LongAdder();
+        private final LongAdder limitedRoute = new LongAdder();
+
+        RouteLimits(RateLimitProperties.Limit limit, long now) {
+            this.limit = limit;
+            this.userInterval = intervalNanos(limit.getPerUserRate());
+            this.userTolerance = userInterval * Math.max(1, limit.getPerUserBurst());
+            this.routeInterval = intervalNanos(limit.getRouteRate());
+            this.routeTolerance = routeInterval * Math.max(1, limit.getRouteBurst());
+            this.routeBucket = routeInterval > 0 ? new TokenBucket(now) : null;
+        }
+
+        private static long intervalNanos(double ratePerSecond) {
+            return ratePerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond) : 0;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.demo.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Token bucket in GCRA form: the whole state is one long, the "theoretical
+ * arrival time" of the next request, updated with a single CAS. A bucket that
+ * has been left alone long enough is full again, so there is no refill task,
+ * no lock and nothing to allocate per request.
+ */
+final class TokenBucket {
+
+    private static final AtomicLongFieldUpdater<TokenBucket> ARRIVAL =
+            AtomicLongFieldUpdater.newUpdater(TokenBucket.class, "theoreticalArrival");
+
+    private volatile long theoreticalArrival;
+
+    TokenBucket(long nowNanos) {
+        this.theoreticalArrival = nowNanos;
+    }
+
+    /**
+     * Take one token. Returns 0 if allowed, otherwise the nanos until a token is available.
+     *
+     * @param intervalNanos time to earn one token (1 / rate)
+     * @param toleranceNanos bucket size expressed as time (burst * interval)
+     */
+    long tryAcquire(long nowNanos, long intervalNanos, long toleranceNanos) {
+        while (true) {
+            long arrival = theoreticalArrival;
+            long next = Math.max(arrival, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (ARRIVAL.compareAndSet(this, arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Give back a token taken by tryAcquire, e.g. when a later check rejected the
+     * request. Moving the arrival back past now only means the bucket is full.
+     */
+    void refund(long intervalNanos) {
+        ARRIVAL.getAndAdd(this, -intervalNanos);
+    }
+
+    /**
+     * True once the bucket has been full for at least the given time
+     */
+    boolean idleFor(long nowNanos, long idleNanos) {
+        return nowNanos - theoreticalArrival >= idleNanos;
+    }
+}
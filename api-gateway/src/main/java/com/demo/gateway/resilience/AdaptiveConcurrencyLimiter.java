@@ -0,0 +1,102 @@
+package com.demo.gateway.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control for downstream calls. Each service has an adaptive
+ * concurrency limit (see {@link GradientLimit}); a call that would exceed it is
+ * shed immediately with 503 and Retry-After rather than queued, so admitted
+ * requests keep close to baseline latency when traffic spikes past capacity.
+ *
+ * Applied on every downstream WebClient, so all gateway routes - proxied,
+ * cached and aggregated - go through it. It runs after the deadline filter
+ * (a request already past its deadline never takes a slot) and before the
+ * circuit breaker and bulkhead. The slot is held until the response headers
+ * arrive.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    static final String REJECTED_HEADER = "X-Gateway-Rejected";
+
+    private final LimiterProperties properties;
+    private final Map<String, GradientLimit> limits = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(LimiterProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Filter for the WebClient of the given downstream service
+     */
+    public ExchangeFilterFunction filterFor(String service) {
+        if (!properties.isEnabled()) {
+            return (request, next) -> next.exchange(request);
+        }
+        GradientLimit limit = limits.computeIfAbsent(service, name -> new GradientLimit(properties));
+        return (request, next) -> Mono.defer(() -> {
+            if (!limit.tryAcquire()) {
+                logger.debug("LOAD_SHED: service={}, method={}, uri={}", service, request.method(), request.url());
+                return Mono.just(shed(service));
+            }
+            long start = System.nanoTime();
+            AtomicBoolean released = new AtomicBoolean();
+            return next.exchange(request)
+                    .doOnNext(response -> {
+                        if (released.compareAndSet(false, true)) {
+                            if (response.headers().header(REJECTED_HEADER).isEmpty()) {
+                                limit.onSuccess(System.nanoTime() - start);
+                            } else {
+                                // Rejected by the breaker/bulkhead - says nothing about backend latency
+                                limit.release();
+                            }
+                        }
+                    })
+                    .doOnError(ex -> {
+                        if (released.compareAndSet(false, true)) {
+                            limit.onDropped();
+                        }
+                    })
+                    .doFinally(signal -> {
+                        // Cancelled before a response arrived
+                        if (released.compareAndSet(false, true)) {
+                            limit.release();
+                        }
+                    });
+        });
+    }
+
+    private ClientResponse shed(String service) {
+        long retryAfterSeconds = Math.max(1, properties.getRetryAfter().toSeconds());
+        return ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .header(REJECTED_HEADER, service)
+                .body("{\"error\":\"Service Unavailable\",\"message\":\"" + service
+                        + "-service is at its concurrency limit, retry later\"}")
+                .build();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        limits.forEach((service, limit) -> result.put(service, limit.snapshot()));
+        return result;
+    }
+}
@@ -0,0 +1,150 @@
+package com.demo.gateway.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-downstream circuit breaker and concurrency bulkhead, applied as a filter
+ * on each service's WebClient so that every proxied call is covered.
+ *
+ * The breaker counts 5xx responses and transport errors as failures and calls
+ * slower than the configured threshold as slow; when either rate is too high
+ * it opens and later probes the service in half-open state. The bulkhead caps
+ * concurrent calls per service, so a slow backend (e.g. order-service in slow
+ * mode) cannot take all gateway resources away from the others. Rejected calls
+ * fail fast with a 503 instead of waiting on the unhealthy backend.
+ */
+@Component
+public class DownstreamResilience {
+
+    private static final Logger logger = LoggerFactory.getLogger(DownstreamResilience.class);
+
+    private final ResilienceProperties properties;
+    private final Map<String, Guard> guards = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DownstreamResilience(ResilienceProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Filter for the WebClient of the given downstream service
+     */
+    public ExchangeFilterFunction filterFor(String service) {
+        if (!properties.isEnabled()) {
+            return (request, next) -> next.exchange(request);
+        }
+        Guard guard = guards.computeIfAbsent(service, this::createGuard);
+        return (request, next) -> next.exchange(request)
+                .transformDeferred(CircuitBreakerOperator.of(guard.circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(guard.bulkhead))
+                .onErrorResume(CallNotPermittedException.class, ex -> {
+                    guard.circuitOpenRejections.increment();
+                    return Mono.just(unavailable(service, service + "-service circuit breaker is open"));
+                })
+                .onErrorResume(BulkheadFullException.class, ex -> {
+                    guard.bulkheadRejections.increment();
+                    return Mono.just(unavailable(service, service + "-service has too many calls in progress"));
+                });
+    }
+
+    private Guard createGuard(String service) {
+        ResilienceProperties.Downstream settings = properties.forService(service);
+
+        CircuitBreakerConfig breakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(settings.getFailureRateThreshold())
+                .slowCallRateThreshold(settings.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(settings.getSlowCallDurationThreshold())
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(settings.getSlidingWindowSize())
+                .minimumNumberOfCalls(settings.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(settings.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(settings.getPermittedCallsInHalfOpenState())
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                // A 5xx from the backend is a failure even though the exchange itself succeeded
+                .recordResult(result -> result instanceof ClientResponse response
+                        && response.statusCode().is5xxServerError())
+                .build();
+        CircuitBreaker circuitBreaker = CircuitBreaker.of(service, breakerConfig);
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                logger.warn("CIRCUIT_BREAKER: service={}, transition={}", service, event.getStateTransition()));
+
+        BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+                .maxConcurrentCalls(settings.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+        Bulkhead bulkhead = Bulkhead.of(service, bulkheadConfig);
+
+        return new Guard(circuitBreaker, bulkhead);
+    }
+
+    private static ClientResponse unavailable(String service, String message) {
+        return ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(AdaptiveConcurrencyLimiter.REJECTED_HEADER, service)
+                .body("{\"error\":\"Service Unavailable\",\"message\":\"" + message + "\"}")
+                .build();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        guards.forEach((service, guard) -> {
+            CircuitBreaker.Metrics metrics = guard.circuitBreaker.getMetrics();
+            Map<String, Object> breaker = new LinkedHashMap<>();
+            breaker.put("state", guard.circuitBreaker.getState().name());
+            breaker.put("failureRate", metrics.getFailureRate());
+            breaker.put("slowCallRate", metrics.getSlowCallRate());
+            breaker.put("bufferedCalls", metrics.getNumberOfBufferedCalls());
+            breaker.put("failedCalls", metrics.getNumberOfFailedCalls());
+            breaker.put("slowCalls", metrics.getNumberOfSlowCalls());
+            breaker.put("notPermittedCalls", metrics.getNumberOfNotPermittedCalls());
+            breaker.put("rejected", guard.circuitOpenRejections.sum());
+
+            Bulkhead.Metrics bulkheadMetrics = guard.bulkhead.getMetrics();
+            Map<String, Object> bulkhead = new LinkedHashMap<>();
+            bulkhead.put("maxConcurrentCalls", bulkheadMetrics.getMaxAllowedConcurrentCalls());
+            bulkhead.put("availableConcurrentCalls", bulkheadMetrics.getAvailableConcurrentCalls());
+            bulkhead.put("rejected", guard.bulkheadRejections.sum());
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("circuitBreaker", breaker);
+            stats.put("bulkhead", bulkhead);
+            result.put(service, stats);
+        });
+        return result;
+    }
+
+    private static class Guard {
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+        private final LongAdder circuitOpenRejections = new LongAdder();
+        private final LongAdder bulkheadRejections = new LongAdder();
+
+        Guard(CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+        }
+    }
+}
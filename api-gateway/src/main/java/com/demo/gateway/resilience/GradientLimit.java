@@ -0,0 +1,115 @@
+package com.demo.gateway.resilience;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gradient-based concurrency limit for one downstream service.
+ *
+ * Two moving averages of call latency are kept: a short one (what calls cost
+ * right now) and a long one (the baseline). While recent latency stays near the
+ * baseline the limit grows by roughly sqrt(limit) per update; once calls get
+ * slower - requests are queueing somewhere - the limit shrinks in proportion
+ * to the slowdown. Transport errors halve the estimate like a TCP loss event.
+ */
+final class GradientLimit {
+
+    private final LimiterProperties settings;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    GradientLimit(LimiterProperties settings) {
+        this.settings = settings;
+        this.limit = settings.getInitialLimit();
+        this.estimatedLimit = settings.getInitialLimit();
+    }
+
+    /**
+     * Take a slot if fewer than limit calls are in flight
+     */
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                shed.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                admitted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release a slot without feeding the latency estimate (e.g. the call was rejected further in)
+     */
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    void onSuccess(long rttNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        update(rttNanos, inFlightAtCompletion, false);
+    }
+
+    void onDropped() {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        update(0, inFlightAtCompletion, true);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtCompletion, boolean dropped) {
+        double next;
+        if (dropped) {
+            next = estimatedLimit / 2;
+        } else {
+            if (longRttNanos == 0) {
+                shortRttNanos = rttNanos;
+                longRttNanos = rttNanos;
+            }
+            shortRttNanos += (rttNanos - shortRttNanos) / settings.getShortWindow();
+            longRttNanos += (rttNanos - longRttNanos) / settings.getLongWindow();
+
+            // Let the baseline recover quickly when the service gets faster again
+            if (longRttNanos > shortRttNanos * 2) {
+                longRttNanos *= 0.95;
+            }
+
+            // Nothing learned about capacity if we were nowhere near the limit
+            if (inFlightAtCompletion < estimatedLimit / 2) {
+                return;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0,
+                    settings.getRttTolerance() * longRttNanos / shortRttNanos));
+            double queueAllowance = Math.sqrt(estimatedLimit);
+            next = estimatedLimit * gradient + queueAllowance;
+        }
+
+        next = estimatedLimit * (1 - settings.getSmoothing()) + next * settings.getSmoothing();
+        estimatedLimit = Math.max(settings.getMinLimit(), Math.min(settings.getMaxLimit(), next));
+        limit = (int) estimatedLimit;
+    }
+
+    synchronized Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("limit", limit);
+        stats.put("inFlight", inFlight.get());
+        stats.put("admitted", admitted.sum());
+        stats.put("shed", shed.sum());
+        stats.put("shortRttMs", shortRttNanos / 1_000_000.0);
+        stats.put("baselineRttMs", longRttNanos / 1_000_000.0);
+        return stats;
+    }
+}
@@ -0,0 +1,109 @@
+package com.demo.gateway.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Adaptive concurrency limit settings, shared by all downstream services
+ * (each service still gets its own limit), e.g. gateway.limiter.max-limit=200
+ */
+@Component
+@ConfigurationProperties("gateway.limiter")
+public class LimiterProperties {
+
+    private boolean enabled = true;
+
+    // Concurrency limit bounds; the limit starts at initial-limit and adapts within [min, max]
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+
+    // How much slower than the long-term baseline recent calls may be before the limit shrinks
+    private double rttTolerance = 1.5;
+
+    // Weight of each new limit estimate (0..1); lower = smoother, slower to react
+    private double smoothing = 0.2;
+
+    // Samples averaged into the short-term and long-term (baseline) latency
+    private int shortWindow = 10;
+    private int longWindow = 500;
+
+    // Sent as Retry-After on shed requests
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    // Getters and Setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    public void setRttTolerance(double rttTolerance) {
+        this.rttTolerance = rttTolerance;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public int getShortWindow() {
+        return shortWindow;
+    }
+
+    public void setShortWindow(int shortWindow) {
+        this.shortWindow = shortWindow;
+    }
+
+    public int getLongWindow() {
+        return longWindow;
+    }
+
+    public void setLongWindow(int longWindow) {
+        this.longWindow = longWindow;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,20 @@
+package com.demo.gateway.resilience;
+
+/**
+ * Request priority tiers, highest first. Under overload the gateway queues and
+ * sheds the lower tiers before the higher ones (see {@link PriorityScheduler}).
+ */
+public enum Priority {
+
+    // Checkout: revenue, never shed while there is any capacity left
+    CRITICAL,
+
+    // Cart writes (add, remove, clear)
+    HIGH,
+
+    // Catalog, cart and order reads
+    NORMAL,
+
+    // Analytics and funnel tracking events, reporting
+    LOW
+}
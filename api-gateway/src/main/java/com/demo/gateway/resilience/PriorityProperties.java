@@ -0,0 +1,143 @@
+package com.demo.gateway.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Priority scheduling settings: one gateway-wide concurrency budget and, per
+ * tier, how much of it the tier may fill and how long it may queue, e.g.
+ * gateway.priority.low.max-wait=100ms
+ */
+@Component
+@ConfigurationProperties("gateway.priority")
+public class PriorityProperties {
+
+    private boolean enabled = true;
+
+    // Requests in flight through the gateway at once, across all tiers
+    private int maxConcurrency = 256;
+
+    // Sent as Retry-After on shed requests
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private Tier critical = new Tier(1.0, 1000, Duration.ofSeconds(5));
+    private Tier high = new Tier(0.9, 500, Duration.ofSeconds(2));
+    private Tier normal = new Tier(0.75, 200, Duration.ofMillis(500));
+    private Tier low = new Tier(0.5, 50, Duration.ofMillis(100));
+
+    public Tier tier(Priority priority) {
+        switch (priority) {
+            case CRITICAL:
+                return critical;
+            case HIGH:
+                return high;
+            case NORMAL:
+                return normal;
+            default:
+                return low;
+        }
+    }
+
+    // Getters and Setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public Tier getCritical() {
+        return critical;
+    }
+
+    public void setCritical(Tier critical) {
+        this.critical = critical;
+    }
+
+    public Tier getHigh() {
+        return high;
+    }
+
+    public void setHigh(Tier high) {
+        this.high = high;
+    }
+
+    public Tier getNormal() {
+        return normal;
+    }
+
+    public void setNormal(Tier normal) {
+        this.normal = normal;
+    }
+
+    public Tier getLow() {
+        return low;
+    }
+
+    public void setLow(Tier low) {
+        this.low = low;
+    }
+
+    public static class Tier {
+
+        // Fraction of max-concurrency in use above which requests of this tier queue instead of starting
+        private double share;
+
+        // Requests of this tier waiting at once, and how long each may wait; beyond either it is shed
+        private int maxQueue;
+        private Duration maxWait;
+
+        public Tier() {
+        }
+
+        Tier(double share, int maxQueue, Duration maxWait) {
+            this.share = share;
+            this.maxQueue = maxQueue;
+            this.maxWait = maxWait;
+        }
+
+        public double getShare() {
+            return share;
+        }
+
+        public void setShare(double share) {
+            this.share = share;
+        }
+
+        public int getMaxQueue() {
+            return maxQueue;
+        }
+
+        public void setMaxQueue(int maxQueue) {
+            this.maxQueue = maxQueue;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+}
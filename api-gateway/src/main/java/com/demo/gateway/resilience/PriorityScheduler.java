@@ -0,0 +1,300 @@
+package com.demo.gateway.resilience;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Priority-aware admission for requests entering the gateway. All tiers share
+ * one concurrency budget (gateway.priority.max-concurrency), but each tier may
+ * only start a request while total occupancy is below its share of it:
+ * analytics events stop at half, reads at three quarters, cart writes at 90%
+ * and checkout can use all of it. Above its share a request waits in its
+ * tier's queue; freed slots go to the highest non-empty tier first. A request
+ * whose queue is full or that waits longer than its tier's max-wait is shed
+ * with 503 and Retry-After, so as load rises the lowest tiers are shed first
+ * and checkout keeps headroom.
+ *
+ * Nothing blocks: a queued request is a pending Mono completed by whichever
+ * request frees a slot. The slot is held until the response headers arrive,
+ * like the per-service {@link AdaptiveConcurrencyLimiter} behind it.
+ */
+@Component
+public class PriorityScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriorityScheduler.class);
+
+    // Waiter states
+    private static final int WAITING = 0;
+    private static final int ADMITTED = 1;
+    private static final int ABANDONED = 2;
+
+    private final PriorityProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Indexed by Priority ordinal, highest priority first
+    private final Tier[] tiers = new Tier[Priority.values().length];
+    // Serializes dispatch() without locking: callers that find it busy leave the work to the running pass
+    private final AtomicInteger dispatchWip = new AtomicInteger();
+
+    @Autowired
+    public PriorityScheduler(PriorityProperties properties) {
+        this.properties = properties;
+        for (Priority priority : Priority.values()) {
+            tiers[priority.ordinal()] = new Tier(priority, properties.tier(priority), properties.getMaxConcurrency());
+        }
+    }
+
+    /**
+     * Run the call once a slot is free for the given tier; if the request is shed instead,
+     * emit the 503 response converted by the caller into its own response type
+     */
+    public <T> Mono<T> schedule(Priority priority, Mono<T> call, Function<ResponseEntity<byte[]>, T> shed) {
+        if (!properties.isEnabled()) {
+            return call;
+        }
+        Tier tier = tiers[priority.ordinal()];
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            // Go straight in only if nobody of this or a higher tier is already waiting
+            if (!waitingAtOrAbove(priority) && tryAcquire(tier)) {
+                tier.admitted(0);
+                return run(new Permit(tier), call);
+            }
+            if (tier.queued.get() >= tier.maxQueue) {
+                return Mono.just(shed.apply(reject(tier, "queue full")));
+            }
+
+            Waiter waiter = new Waiter(tier);
+            return Mono.<Boolean>create(sink -> {
+                        waiter.sink = sink;
+                        tier.queued.incrementAndGet();
+                        tier.queue.offer(waiter);
+                        Disposable timer = Schedulers.parallel().schedule(() -> {
+                            if (waiter.abandon()) {
+                                sink.success(false);
+                            }
+                        }, tier.maxWaitNanos, TimeUnit.NANOSECONDS);
+                        sink.onDispose(timer);
+                        // Client went away while queued, or right after being admitted
+                        sink.onCancel(() -> {
+                            if (!waiter.abandon() && waiter.state.get() == ADMITTED) {
+                                waiter.permit.release();
+                            }
+                        });
+                        // A slot may have been freed between tryAcquire and offer
+                        dispatch();
+                    })
+                    .flatMap(admitted -> {
+                        if (!admitted) {
+                            return Mono.just(shed.apply(reject(tier, "queue wait exceeded")));
+                        }
+                        tier.admitted(System.nanoTime() - start);
+                        return run(waiter.permit, call);
+                    });
+        });
+    }
+
+    private static <T> Mono<T> run(Permit permit, Mono<T> call) {
+        return call
+                .doOnNext(response -> permit.release())
+                .doFinally(signal -> permit.release());
+    }
+
+    private boolean waitingAtOrAbove(Priority priority) {
+        for (int i = 0; i <= priority.ordinal(); i++) {
+            if (tiers[i].queued.get() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean tryAcquire(Tier tier) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= tier.ceiling) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                tier.inFlight.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    private void release(Tier tier) {
+        tier.inFlight.decrementAndGet();
+        inFlight.decrementAndGet();
+        dispatch();
+    }
+
+    /**
+     * Hand free slots to queued requests, highest tier first; each tier only up to its own ceiling
+     */
+    private void dispatch() {
+        if (dispatchWip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            for (Tier tier : tiers) {
+                while (!tier.queue.isEmpty() && tryAcquire(tier)) {
+                    Waiter waiter = tier.queue.poll();
+                    if (waiter != null && waiter.admit()) {
+                        waiter.sink.success(true);
+                    } else {
+                        // Timed out or cancelled in the meantime: give the slot back and try the next one
+                        tier.inFlight.decrementAndGet();
+                        inFlight.decrementAndGet();
+                    }
+                }
+            }
+            missed = dispatchWip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private ResponseEntity<byte[]> reject(Tier tier, String reason) {
+        tier.shed.increment();
+        logger.debug("PRIORITY_SHED: tier={}, reason={}, inFlight={}", tier.priority, reason, inFlight.get());
+        long retryAfterSeconds = Math.max(1, properties.getRetryAfter().toSeconds());
+        byte[] body = ("{\"error\":\"Service Unavailable\",\"message\":\"Gateway overloaded, "
+                + tier.priority.name().toLowerCase() + " priority request shed (" + reason + "), retry later\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("maxConcurrency", properties.getMaxConcurrency());
+        result.put("inFlight", inFlight.get());
+        Map<String, Object> byTier = new LinkedHashMap<>();
+        for (Tier tier : tiers) {
+            byTier.put(tier.priority.name().toLowerCase(), tier.snapshot());
+        }
+        result.put("tiers", byTier);
+        return result;
+    }
+
+    private final class Tier {
+        private final Priority priority;
+        private final int ceiling;
+        private final int maxQueue;
+        private final long maxWaitNanos;
+
+        private final Queue<Waiter> queue = new ConcurrentLinkedQueue<>();
+        // Waiters not yet admitted or abandoned; the queue itself may still hold abandoned ones
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder admittedAfterWait = new LongAdder();
+        private final LongAdder shed = new LongAdder();
+        // Queue wait of admitted requests, since startup
+        private final ConcurrentHistogram waitNanos = new ConcurrentHistogram(3);
+
+        Tier(Priority priority, PriorityProperties.Tier config, int maxConcurrency) {
+            this.priority = priority;
+            this.ceiling = Math.max(1, (int) Math.round(maxConcurrency * Math.min(1.0, config.getShare())));
+            this.maxQueue = Math.max(0, config.getMaxQueue());
+            this.maxWaitNanos = config.getMaxWait().toNanos();
+        }
+
+        void admitted(long waited) {
+            admitted.increment();
+            if (waited > 0) {
+                admittedAfterWait.increment();
+                waitNanos.recordValue(waited);
+            }
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ceiling", ceiling);
+            stats.put("inFlight", inFlight.get());
+            stats.put("queueDepth", queued.get());
+            stats.put("maxQueue", maxQueue);
+            stats.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+            stats.put("admitted", admitted.sum());
+            stats.put("queuedBeforeAdmit", admittedAfterWait.sum());
+            stats.put("shed", shed.sum());
+            stats.put("waitP50Ms", waitNanos.getValueAtPercentile(50) / 1_000_000.0);
+            stats.put("waitP99Ms", waitNanos.getValueAtPercentile(99) / 1_000_000.0);
+            stats.put("waitMaxMs", waitNanos.getMaxValue() / 1_000_000.0);
+            return stats;
+        }
+    }
+
+    /**
+     * One occupied slot, released exactly once however the request ends
+     */
+    private final class Permit {
+        private final Tier tier;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(Tier tier) {
+            this.tier = tier;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                PriorityScheduler.this.release(tier);
+            }
+        }
+    }
+
+    /**
+     * A queued request; dispatch (admit) and the max-wait timer or a cancel (abandon) race for it
+     */
+    private final class Waiter {
+        private final Tier tier;
+        private final Permit permit;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private volatile MonoSink<Boolean> sink;
+
+        Waiter(Tier tier) {
+            this.tier = tier;
+            this.permit = new Permit(tier);
+        }
+
+        boolean admit() {
+            if (state.compareAndSet(WAITING, ADMITTED)) {
+                tier.queued.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        boolean abandon() {
+            if (state.compareAndSet(WAITING, ABANDONED)) {
+                tier.queued.decrementAndGet();
+                tier.queue.remove(this);
+                return true;
+            }
+            return false;
+        }
+    }
+}
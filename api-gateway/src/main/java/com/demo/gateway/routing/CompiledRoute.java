@@ -0,0 +1,129 @@
+package com.demo.gateway.routing;
+
+import com.demo.gateway.resilience.Priority;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * One route of the table, resolved at startup: downstream client, base URL
+ * and pre-split target / cache key templates
+ */
+public final class CompiledRoute {
+
+    private final String id;
+    private final HttpMethod method;
+    private final String path;
+    private final String service;
+    private final WebClient client;
+    private final String baseUrl;
+    private final PathTemplate target;
+    private final PathTemplate cacheKey;
+    private final boolean coalesce;
+    private final Duration timeout;
+    private final int retries;
+    private final List<String> forwardHeaders;
+    private final Priority priority;
+    // Position of the {userId} path variable, or -1 if the path has none
+    private final int userSlot;
+
+    CompiledRoute(String id, HttpMethod method, String path, String service, WebClient client, String baseUrl,
+                  PathTemplate target, PathTemplate cacheKey, boolean coalesce, Duration timeout, int retries,
+                  List<String> forwardHeaders, Priority priority, int userSlot) {
+        this.id = id;
+        this.method = method;
+        this.path = path;
+        this.service = service;
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.target = target;
+        this.cacheKey = cacheKey;
+        this.coalesce = coalesce;
+        this.timeout = timeout;
+        this.retries = retries;
+        this.forwardHeaders = List.copyOf(forwardHeaders);
+        this.priority = priority;
+        this.userSlot = userSlot;
+    }
+
+    /**
+     * Absolute downstream URI for the captured path values, with the raw query string appended
+     */
+    public String targetUri(String[] values, String rawQuery) {
+        return targetUri(baseUrl, values, rawQuery);
+    }
+
+    /**
+     * Same target on another host, e.g. a candidate build receiving mirrored traffic
+     */
+    public String targetUri(String baseUrl, String[] values, String rawQuery) {
+        StringBuilder uri = new StringBuilder(baseUrl.length() + target.estimatedLength()
+                + (rawQuery != null ? rawQuery.length() + 1 : 0));
+        uri.append(baseUrl);
+        target.expand(uri, values);
+        if (rawQuery != null && !rawQuery.isEmpty()) {
+            uri.append('?').append(rawQuery);
+        }
+        return uri.toString();
+    }
+
+    public boolean isBuffered() {
+        return cacheKey != null;
+    }
+
+    /**
+     * Whether identical concurrent requests of a buffered route may share one downstream call
+     */
+    public boolean isCoalesce() {
+        return coalesce;
+    }
+
+    public String cacheKey(String[] values) {
+        return cacheKey.expand(values);
+    }
+
+    /**
+     * The captured {userId} value, or null if the route path has no such variable
+     */
+    public String userId(String[] values) {
+        return userSlot >= 0 ? values[userSlot] : null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public WebClient getClient() {
+        return client;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public List<String> getForwardHeaders() {
+        return forwardHeaders;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+}
@@ -0,0 +1,82 @@
+package com.demo.gateway.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A URI template split once at startup into literal chunks and variable slots,
+ * so expanding it per request is a single StringBuilder pass with no parsing.
+ * Variables refer to the positions captured while matching the gateway path.
+ */
+final class PathTemplate {
+
+    // Literal text before each variable, plus a trailing literal
+    private final String[] literals;
+    private final int[] slots;
+    private final int estimatedLength;
+
+    private PathTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.estimatedLength = length + slots.length * 16;
+    }
+
+    /**
+     * Compile e.g. /api/cart/{userId}/items against the variable positions of the gateway path
+     */
+    static PathTemplate compile(String template, Map<String, Integer> variablePositions) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            if (c == '{') {
+                int end = template.indexOf('}', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed variable in template: " + template);
+                }
+                String name = template.substring(i + 1, end);
+                Integer position = variablePositions.get(name);
+                if (position == null) {
+                    throw new IllegalArgumentException("Unknown variable {" + name + "} in template: " + template);
+                }
+                literals.add(literal.toString());
+                slots.add(position);
+                literal.setLength(0);
+                i = end + 1;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(literal.toString());
+        return new PathTemplate(literals.toArray(new String[0]), slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Append the template with captured (still percent-encoded) values substituted
+     */
+    StringBuilder expand(StringBuilder out, String[] values) {
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]).append(values[slots[i]]);
+        }
+        return out.append(literals[slots.length]);
+    }
+
+    String expand(String[] values) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+        return expand(new StringBuilder(estimatedLength), values).toString();
+    }
+
+    int estimatedLength() {
+        return estimatedLength;
+    }
+}
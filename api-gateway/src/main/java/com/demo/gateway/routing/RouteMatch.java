@@ -0,0 +1,34 @@
+package com.demo.gateway.routing;
+
+import org.springframework.http.HttpMethod;
+
+import java.util.Set;
+
+/**
+ * Result of matching a request path: the route for the request method (null if
+ * the path exists but not for that method) and the captured path values
+ */
+public final class RouteMatch {
+
+    private final CompiledRoute route;
+    private final String[] values;
+    private final Set<HttpMethod> allowedMethods;
+
+    RouteMatch(CompiledRoute route, String[] values, Set<HttpMethod> allowedMethods) {
+        this.route = route;
+        this.values = values;
+        this.allowedMethods = allowedMethods;
+    }
+
+    public CompiledRoute getRoute() {
+        return route;
+    }
+
+    public String[] getValues() {
+        return values;
+    }
+
+    public Set<HttpMethod> getAllowedMethods() {
+        return allowedMethods;
+    }
+}
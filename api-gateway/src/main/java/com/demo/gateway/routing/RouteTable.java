@@ -0,0 +1,125 @@
+package com.demo.gateway.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The configured routes compiled into a trie of path segments. Matching walks
+ * the request path once, preferring literal segments over variables
+ * (/api/orders/user/{userId} wins over /api/orders/{orderId}), and captures
+ * variable values positionally without any regex or template parsing.
+ */
+@Component
+public class RouteTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteTable.class);
+
+    private final Node root = new Node();
+    private int maxVariables;
+
+    @Autowired
+    public RouteTable(RoutingProperties properties, Map<String, WebClient> webClients, Environment environment) {
+        for (RoutingProperties.Route definition : properties.getRoutes()) {
+            add(definition, webClients, environment);
+        }
+    }
+
+    private void add(RoutingProperties.Route definition, Map<String, WebClient> webClients, Environment environment) {
+        String id = definition.getId();
+        WebClient client = webClients.get(definition.getService() + "WebClient");
+        String baseUrl = environment.getProperty("services." + definition.getService() + ".url");
+        if (client == null || baseUrl == null) {
+            throw new IllegalStateException("Route " + id + " refers to unknown service: " + definition.getService());
+        }
+
+        // Walk/extend the trie along the gateway path, numbering variables in order of appearance
+        Node node = root;
+        Map<String, Integer> variablePositions = new HashMap<>();
+        for (String segment : definition.getPath().substring(1).split("/")) {
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                variablePositions.put(segment.substring(1, segment.length() - 1), variablePositions.size());
+                if (node.variable == null) {
+                    node.variable = new Node();
+                }
+                node = node.variable;
+            } else {
+                node = node.literals.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+        maxVariables = Math.max(maxVariables, variablePositions.size());
+
+        HttpMethod method = HttpMethod.valueOf(definition.getMethod().toUpperCase());
+        // Coalescing, caching and retries would repeat or merge a write; refuse to start rather than do that
+        boolean idempotentRead = HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method);
+        if (!idempotentRead && (definition.getCacheKey() != null || definition.getRetries() > 0)) {
+            throw new IllegalStateException("Route " + id + " (" + method + " " + definition.getPath()
+                    + ") may not set cache-key or retries: only GET and HEAD routes can be buffered or retried");
+        }
+        String target = definition.getTarget() != null ? definition.getTarget() : definition.getPath();
+        CompiledRoute route = new CompiledRoute(id, method, definition.getPath(), definition.getService(), client,
+                baseUrl, PathTemplate.compile(target, variablePositions),
+                definition.getCacheKey() != null ? PathTemplate.compile(definition.getCacheKey(), variablePositions) : null,
+                definition.isCoalesce(), definition.getTimeout(), definition.getRetries(), definition.getForwardHeaders(),
+                definition.getPriority(), variablePositions.getOrDefault("userId", -1));
+
+        if (node.routes.putIfAbsent(method, route) != null) {
+            throw new IllegalStateException("Duplicate route " + method + " " + definition.getPath() + " (" + id + ")");
+        }
+        logger.info("Route compiled - id={}, method={}, path={}, service={}, target={}, priority={}",
+                id, method, definition.getPath(), definition.getService(), target, definition.getPriority());
+    }
+
+    /**
+     * Match a raw (still percent-encoded) request path; null if no route has this path
+     */
+    public RouteMatch match(HttpMethod method, String path) {
+        if (path.isEmpty() || path.charAt(0) != '/') {
+            return null;
+        }
+        String[] values = new String[maxVariables];
+        Node node = find(root, path, 1, values, 0);
+        if (node == null) {
+            return null;
+        }
+        return new RouteMatch(node.routes.get(method), values, node.routes.keySet());
+    }
+
+    private Node find(Node node, String path, int start, String[] values, int captured) {
+        if (start > path.length()) {
+            return node.routes.isEmpty() ? null : node;
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        String segment = path.substring(start, end);
+
+        Node literal = node.literals.get(segment);
+        if (literal != null) {
+            Node found = find(literal, path, end + 1, values, captured);
+            if (found != null) {
+                return found;
+            }
+        }
+        if (node.variable != null && !segment.isEmpty()) {
+            values[captured] = segment;
+            return find(node.variable, path, end + 1, values, captured + 1);
+        }
+        return null;
+    }
+
+    private static class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private Node variable;
+        private final Map<HttpMethod, CompiledRoute> routes = new LinkedHashMap<>();
+    }
+}
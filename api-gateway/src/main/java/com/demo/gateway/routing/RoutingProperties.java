@@ -0,0 +1,147 @@
+package com.demo.gateway.routing;
+
+import com.demo.gateway.resilience.Priority;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Declarative route table (gateway.routing.routes[n].*), compiled by {@link RouteTable}
+ */
+@Component
+@ConfigurationProperties("gateway.routing")
+public class RoutingProperties {
+
+    private List<Route> routes = new ArrayList<>();
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<Route> routes) {
+        this.routes = routes;
+    }
+
+    public static class Route {
+
+        // Route name, also used as cache / coalescing / hedging route name
+        private String id;
+
+        private String method = "GET";
+
+        // Gateway path template, e.g. /api/cart/{userId}/items/{itemId}
+        private String path;
+
+        // Downstream service (product, cart, order) and path template; target defaults to path
+        private String service;
+        private String target;
+
+        // Set to buffer the response through the cache/coalescing/hedging proxy, e.g. {id} or all
+        private String cacheKey;
+
+        // Buffered routes only: false for per-user state that changes under the user's own writes (a cart),
+        // where a read joining a call that started before the write would return the old state
+        private boolean coalesce = true;
+
+        // Per-route response timeout (overrides the pool default) and transport retries
+        private Duration timeout;
+        private int retries = 0;
+
+        // Request headers copied to the downstream call
+        private List<String> forwardHeaders = new ArrayList<>();
+
+        // Scheduling tier under overload (critical, high, normal, low), see PriorityScheduler
+        private Priority priority = Priority.NORMAL;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String getService() {
+            return service;
+        }
+
+        public void setService(String service) {
+            this.service = service;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public void setTarget(String target) {
+            this.target = target;
+        }
+
+        public String getCacheKey() {
+            return cacheKey;
+        }
+
+        public void setCacheKey(String cacheKey) {
+            this.cacheKey = cacheKey;
+        }
+
+        public boolean isCoalesce() {
+            return coalesce;
+        }
+
+        public void setCoalesce(boolean coalesce) {
+            this.coalesce = coalesce;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public void setRetries(int retries) {
+            this.retries = retries;
+        }
+
+        public List<String> getForwardHeaders() {
+            return forwardHeaders;
+        }
+
+        public void setForwardHeaders(List<String> forwardHeaders) {
+            this.forwardHeaders = forwardHeaders;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        public void setPriority(Priority priority) {
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.demo.gateway.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+    private ResponseCacheProperties properties;
+    private ResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResponseCacheProperties();
+        properties.setTtl(Map.of("product-list", Duration.ofSeconds(30), "product-detail", Duration.ofSeconds(60)));
+        cache = new ResponseCache(properties);
+    }
+
+    @Test
+    void invalidatingAKeyDropsItsQueryVariants() {
+        put("product-list", "all");
+        put("product-list", "all?sort=price");
+        put("product-list", "all?sort=price&cursor=abc");
+        put("product-detail", "3");
+        put("product-detail", "31");
+
+        assertThat(cache.invalidate("product-list", "all")).isEqualTo(3);
+        assertThat(cache.invalidate("product-detail", "3")).isEqualTo(1);
+
+        assertThat(cache.get("product-list", "all?sort=price")).isNull();
+        assertThat(cache.get("product-detail", "31")).isNotNull();
+    }
+
+    @Test
+    void invalidationWinsOverAFetchThatStartedBeforeIt() {
+        long generation = cache.generation("product-detail");
+        cache.invalidate("product-detail", "3");
+
+        put("product-detail", "3", generation);
+
+        assertThat(cache.get("product-detail", "3")).isNull();
+    }
+
+    @Test
+    void unknownRoutesDoNotGrowTheStats() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(cache.invalidate("no-such-route-" + i)).isZero();
+            assertThat(cache.invalidate("no-such-route-" + i, "1")).isZero();
+        }
+
+        assertThat(routes()).isEmpty();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedOnceFull() {
+        properties.setMaxEntries(16);
+        for (int id = 0; id < 200; id++) {
+            put("product-detail", Integer.toString(id));
+        }
+
+        assertThat((Integer) cache.snapshot().get("entries")).isLessThanOrEqualTo(16);
+        assertThat(cache.get("product-detail", "199")).isNotNull();
+        assertThat(cache.get("product-detail", "0")).isNull();
+    }
+
+    private void put(String route, String key) {
+        put(route, key, cache.generation(route));
+    }
+
+    private void put(String route, String key, long generation) {
+        byte[] body = ("{\"key\":\"" + key + "\"}").getBytes(StandardCharsets.UTF_8);
+        cache.put(route, key, new CachedResponse(HttpStatus.OK, new HttpHeaders(), body, cache.expiryFor(route)),
+                generation);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> routes() {
+        return (Map<String, Object>) cache.snapshot().get("routes");
+    }
+}
@@ -0,0 +1,43 @@
+package com.demo.gateway.config;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.junit.jupiter.api.Test;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.util.function.BiPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ServerCompressionConfigTest {
+
+    private final ServerCompressionConfig config = new ServerCompressionConfig();
+
+    @Test
+    void doesNotCompressResponsesWithAnETag() {
+        HttpServer server = config.skipCompressionWithETag().apply(HttpServer.create().compress((request, response) -> true));
+        BiPredicate<HttpServerRequest, HttpServerResponse> compress = server.configuration().compressPredicate();
+
+        assertThat(compress.test(mock(HttpServerRequest.class), response(new DefaultHttpHeaders()))).isTrue();
+        HttpHeaders tagged = new DefaultHttpHeaders().set(HttpHeaderNames.ETAG, "\"42\"");
+        assertThat(compress.test(mock(HttpServerRequest.class), response(tagged))).isFalse();
+    }
+
+    @Test
+    void leavesCompressionOffWhenNotConfigured() {
+        HttpServer server = config.skipCompressionWithETag().apply(HttpServer.create());
+
+        assertThat(server.configuration().compressPredicate()).isNull();
+    }
+
+    private static HttpServerResponse response(HttpHeaders headers) {
+        HttpServerResponse response = mock(HttpServerResponse.class);
+        when(response.responseHeaders()).thenReturn(headers);
+        return response;
+    }
+}
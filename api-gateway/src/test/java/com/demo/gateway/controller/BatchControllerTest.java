@@ -0,0 +1,95 @@
+package com.demo.gateway.controller;
+
+import com.demo.gateway.dto.BatchRequest;
+import com.demo.gateway.routing.RouteTable;
+import com.demo.gateway.routing.RoutingProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchControllerTest {
+
+    private static final Duration BLOCK = Duration.ofSeconds(5);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BatchController batchController;
+    private RoutedProxyController routedProxyController;
+
+    @BeforeEach
+    void setUp() {
+        routedProxyController = new RoutedProxyController();
+        ReflectionTestUtils.setField(routedProxyController, "routeTable",
+                new RouteTable(new RoutingProperties(), Map.of(), new MockEnvironment()));
+
+        batchController = new BatchController();
+        ReflectionTestUtils.setField(batchController, "routedProxyController", routedProxyController);
+        ReflectionTestUtils.setField(batchController, "maxRequests", 20);
+        ReflectionTestUtils.setField(batchController, "subRequestTimeout", Duration.ofSeconds(1));
+    }
+
+    @Test
+    void invalidBatchErrorEscapesClientIds() throws IOException {
+        ResponseEntity<byte[]> response = batchController.batch(
+                List.of(request("a\"b", "/api/products"), request("a\"b", "/api/products")), new HttpHeaders())
+                .block(BLOCK);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(objectMapper.readTree(response.getBody()).get("message").asText())
+                .isEqualTo("Duplicate request id a\"b");
+    }
+
+    @Test
+    void subRequestErrorsEscapeIdsAndPaths() throws IOException {
+        BatchRequest unrouted = request("first\"", "/api/unknown\"path");
+        BatchRequest dependent = request("second", "/api/products");
+        dependent.setDependsOn(List.of("first\""));
+
+        ResponseEntity<byte[]> response = batchController.batch(List.of(unrouted, dependent), new HttpHeaders())
+                .block(BLOCK);
+
+        JsonNode responses = objectMapper.readTree(response.getBody()).get("responses");
+        assertThat(responses.get(0).get("status").asInt()).isEqualTo(404);
+        assertThat(responses.get(0).get("body").get("message").asText()).isEqualTo("No route for GET /api/unknown\"path");
+        assertThat(responses.get(1).get("status").asInt()).isEqualTo(424);
+        assertThat(responses.get(1).get("body").get("message").asText()).isEqualTo("Request first\" did not succeed");
+    }
+
+    @Test
+    void routeErrorEscapesThePath() throws IOException {
+        ResponseEntity<Flux<DataBuffer>> response = routedProxyController
+                .forward(HttpMethod.GET, "/api/\"quoted\"", null, name -> null, null)
+                .block(BLOCK);
+
+        byte[] body = DataBufferUtils.join(response.getBody())
+                .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+                .block(BLOCK)
+                .getBytes(StandardCharsets.UTF_8);
+        assertThat(objectMapper.readTree(body).get("message").asText()).isEqualTo("No route for GET /api/\"quoted\"");
+    }
+
+    private static BatchRequest request(String id, String path) {
+        BatchRequest request = new BatchRequest();
+        request.setId(id);
+        request.setMethod("GET");
+        request.setPath(path);
+        return request;
+    }
+}
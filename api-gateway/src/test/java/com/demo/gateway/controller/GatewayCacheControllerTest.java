@@ -0,0 +1,58 @@
+package com.demo.gateway.controller;
+
+import com.demo.gateway.cache.ResponseCache;
+import com.demo.gateway.cache.ResponseCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GatewayCacheControllerTest {
+
+    private static final InetSocketAddress LOCAL = new InetSocketAddress("127.0.0.1", 50000);
+    private static final InetSocketAddress REMOTE = new InetSocketAddress("203.0.113.7", 50000);
+
+    private final ResponseCacheProperties properties = new ResponseCacheProperties();
+    private final GatewayCacheController controller = new GatewayCacheController();
+
+    @BeforeEach
+    void setUp() {
+        properties.setTtl(Map.of("product-list", Duration.ofSeconds(30)));
+        ReflectionTestUtils.setField(controller, "responseCache", new ResponseCache(properties));
+        ReflectionTestUtils.setField(controller, "properties", properties);
+    }
+
+    @Test
+    void withoutTokenOnlyDirectLocalCallersMayInvalidate() {
+        assertThat(status(request(LOCAL).build())).isEqualTo(HttpStatus.OK);
+        assertThat(status(request(REMOTE).build())).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(status(request(LOCAL).header("X-Forwarded-For", "203.0.113.7").build()))
+                .isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void withTokenEveryCallerMustPresentIt() {
+        properties.setInvalidationToken("s3cret");
+
+        assertThat(status(request(LOCAL).build())).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(status(request(REMOTE).header(GatewayCacheController.TOKEN_HEADER, "guess").build()))
+                .isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(status(request(REMOTE).header(GatewayCacheController.TOKEN_HEADER, "s3cret").build()))
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    private HttpStatus status(MockServerHttpRequest request) {
+        return (HttpStatus) controller.invalidateRoute("product-list", request).getStatusCode();
+    }
+
+    private static MockServerHttpRequest.BaseBuilder<?> request(InetSocketAddress remote) {
+        return MockServerHttpRequest.delete("/api/gateway/cache/product-list").remoteAddress(remote);
+    }
+}
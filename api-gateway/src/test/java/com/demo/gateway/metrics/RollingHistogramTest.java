@@ -0,0 +1,106 @@
+package com.demo.gateway.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+class RollingHistogramTest {
+
+    @Test
+    void nothingIsVisibleBeforeTheFirstRotation() {
+        RollingHistogram histogram = new RollingHistogram(3);
+        histogram.record(millis(5));
+
+        assertThat(histogram.merged(3).getTotalCount()).isZero();
+    }
+
+    @Test
+    void mergesTheMostRecentSlices() {
+        RollingHistogram histogram = new RollingHistogram(3);
+        record(histogram, 1, millis(1));
+        histogram.rotate();
+        record(histogram, 2, millis(2));
+        histogram.rotate();
+        record(histogram, 4, millis(4));
+        histogram.rotate();
+
+        assertThat(histogram.merged(1).getTotalCount()).isEqualTo(4);
+        assertThat(histogram.merged(2).getTotalCount()).isEqualTo(6);
+        assertThat(histogram.merged(3).getTotalCount()).isEqualTo(7);
+        // More slices than the ring holds is the whole window
+        assertThat(histogram.merged(10).getTotalCount()).isEqualTo(7);
+    }
+
+    @Test
+    void oldestSliceDropsOutOfTheWindow() {
+        RollingHistogram histogram = new RollingHistogram(3);
+        record(histogram, 1, millis(100));
+        histogram.rotate();
+        for (int i = 0; i < 3; i++) {
+            record(histogram, 2, millis(1));
+            histogram.rotate();
+        }
+
+        Histogram merged = histogram.merged(3);
+        assertThat(merged.getTotalCount()).isEqualTo(6);
+        assertThat(merged.getMaxValue()).isLessThan(TimeUnit.MILLISECONDS.toMicros(2));
+    }
+
+    @Test
+    void reusedSliceHoldsOnlyItsOwnInterval() {
+        RollingHistogram histogram = new RollingHistogram(2);
+        for (int i = 0; i < 5; i++) {
+            record(histogram, 10, millis(3));
+            histogram.rotate();
+        }
+        histogram.rotate();
+
+        // The last slice was empty; the one before it had its own 10 values only
+        assertThat(histogram.merged(1).getTotalCount()).isZero();
+        assertThat(histogram.merged(2).getTotalCount()).isEqualTo(10);
+    }
+
+    @Test
+    void recordsInMicrosecondsAndClampsOutOfRangeValues() {
+        RollingHistogram histogram = new RollingHistogram(1);
+        histogram.record(millis(250));
+        histogram.record(-1);
+        histogram.record(TimeUnit.HOURS.toNanos(2));
+        histogram.rotate();
+
+        Histogram merged = histogram.merged(1);
+        assertThat(merged.getTotalCount()).isEqualTo(3);
+        assertThat(merged.getMinValue()).isZero();
+        assertThat(merged.getValueAtPercentile(50))
+                .isCloseTo(TimeUnit.MILLISECONDS.toMicros(250), withinPercentage(1));
+        assertThat(merged.getMaxValue()).isLessThanOrEqualTo(merged.highestEquivalentValue(TimeUnit.HOURS.toMicros(1)));
+    }
+
+    @Test
+    void totalsKeepCountingAcrossRotations() {
+        RollingHistogram histogram = new RollingHistogram(2);
+        for (int i = 0; i < 5; i++) {
+            record(histogram, 3, millis(2));
+            histogram.rotate();
+        }
+
+        // The window only holds the last two slices; the totals hold everything
+        assertThat(histogram.merged(2).getTotalCount()).isEqualTo(6);
+        assertThat(histogram.totalCount()).isEqualTo(15);
+        assertThat(histogram.totalMicros()).isEqualTo(15 * TimeUnit.MILLISECONDS.toMicros(2));
+    }
+
+    private static void record(RollingHistogram histogram, int count, long nanos) {
+        for (int i = 0; i < count; i++) {
+            histogram.record(nanos);
+        }
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
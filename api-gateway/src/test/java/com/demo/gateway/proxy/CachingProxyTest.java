@@ -0,0 +1,100 @@
+package com.demo.gateway.proxy;
+
+import com.demo.gateway.cache.ResponseCache;
+import com.demo.gateway.cache.ResponseCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingProxyTest {
+
+    private static final Duration BLOCK = Duration.ofSeconds(5);
+
+    private CachingProxy proxy;
+    private WebClient cartService;
+
+    // Cart contents as the backend sees them, and a gate holding back its first response
+    private final AtomicInteger items = new AtomicInteger();
+    private final AtomicInteger exchanges = new AtomicInteger();
+    private final Sinks.One<Boolean> firstResponse = Sinks.one();
+
+    @BeforeEach
+    void setUp() {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+
+        RequestBudget budget = new RequestBudget(0.1, 20);
+
+        proxy = new CachingProxy();
+        ReflectionTestUtils.setField(proxy, "responseCache", new ResponseCache(new ResponseCacheProperties()));
+        ReflectionTestUtils.setField(proxy, "requestCoalescer", coalescer);
+        ReflectionTestUtils.setField(proxy, "requestHedger", new RequestHedger(new HedgingProperties(), budget));
+        ReflectionTestUtils.setField(proxy, "retryBudget", new RetryBudget(new RetryProperties(), budget));
+        ReflectionTestUtils.setField(proxy, "compressionMinSize", DataSize.ofKilobytes(2));
+
+        cartService = WebClient.builder()
+                .exchangeFunction(request -> {
+                    // The cart is read when the request arrives, like the service reading its database
+                    Mono<ClientResponse> response = Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body("{\"items\":" + items.get() + "}")
+                            .build());
+                    return exchanges.getAndIncrement() == 0
+                            ? response.delayUntil(ready -> firstResponse.asMono())
+                            : response;
+                })
+                .build();
+    }
+
+    @Test
+    void uncoalescedReadSeesTheUsersOwnWrite() {
+        AtomicReference<ResponseEntity<byte[]>> before = new AtomicReference<>();
+        // A cart read still in flight when the user adds an item
+        getCart(false).subscribe(before::set);
+        items.set(1);
+
+        ResponseEntity<byte[]> after = getCart(false).block(BLOCK);
+        assertThat(body(after)).isEqualTo("{\"items\":1}");
+        assertThat(exchanges).hasValue(2);
+
+        firstResponse.tryEmitValue(true);
+        assertThat(body(before.get())).isEqualTo("{\"items\":0}");
+    }
+
+    @Test
+    void coalescedReadJoinsTheCallInFlight() {
+        AtomicReference<ResponseEntity<byte[]>> joined = new AtomicReference<>();
+        getCart(true).subscribe();
+        items.set(1);
+        getCart(true).subscribe(joined::set);
+
+        firstResponse.tryEmitValue(true);
+        assertThat(body(joined.get())).isEqualTo("{\"items\":0}");
+        assertThat(exchanges).hasValue(1);
+    }
+
+    private Mono<ResponseEntity<byte[]>> getCart(boolean coalesce) {
+        return proxy.forward("cart", "42", cartService.get().uri("http://cart-service/api/cart/42"),
+                0, ClientPreferences.NONE, null, coalesce);
+    }
+
+    private static String body(ResponseEntity<byte[]> response) {
+        return new String(response.getBody(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,53 @@
+package com.demo.gateway.proxy;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadlinesTest {
+
+    private static final Duration ROUTE_TIMEOUT = Duration.ofSeconds(3);
+
+    @Test
+    void shorterClientBudgetWins() {
+        assertThat(budgetMillis(Deadlines.of("500", ROUTE_TIMEOUT))).isBetween(400L, 500L);
+    }
+
+    @Test
+    void routeTimeoutBoundsLargerClientBudget() {
+        assertThat(budgetMillis(Deadlines.of("60000", ROUTE_TIMEOUT))).isBetween(2900L, 3000L);
+    }
+
+    @Test
+    void hugeClientBudgetDoesNotOverflow() {
+        assertThat(budgetMillis(Deadlines.of(Long.toString(Long.MAX_VALUE), ROUTE_TIMEOUT))).isBetween(2900L, 3000L);
+        assertThat(budgetMillis(Deadlines.of("9223372036854775", ROUTE_TIMEOUT))).isBetween(2900L, 3000L);
+    }
+
+    @Test
+    void clientBudgetWithoutRouteTimeoutIsCapped() {
+        long max = Deadlines.MAX_CLIENT_BUDGET.toMillis();
+
+        assertThat(budgetMillis(Deadlines.of("1000", null))).isBetween(900L, 1000L);
+        assertThat(budgetMillis(Deadlines.of(Long.toString(Long.MAX_VALUE), null))).isBetween(max - 100, max);
+    }
+
+    @Test
+    void malformedOrMissingBudgetFallsBackToTheRouteTimeout() {
+        assertThat(budgetMillis(Deadlines.of("soon", ROUTE_TIMEOUT))).isBetween(2900L, 3000L);
+        assertThat(Deadlines.of(null, null)).isNull();
+        assertThat(Deadlines.of("soon", null)).isNull();
+    }
+
+    @Test
+    void negativeBudgetHasAlreadyExpired() {
+        assertThat(budgetMillis(Deadlines.of("-5", ROUTE_TIMEOUT))).isLessThanOrEqualTo(0L);
+    }
+
+    private static long budgetMillis(Long deadline) {
+        return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+}
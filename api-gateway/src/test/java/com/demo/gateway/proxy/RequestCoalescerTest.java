@@ -0,0 +1,166 @@
+package com.demo.gateway.proxy;
+
+import com.demo.gateway.resilience.Priority;
+import com.demo.gateway.resilience.PriorityProperties;
+import com.demo.gateway.resilience.PriorityScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescerTest {
+
+    private static final Duration BLOCK = Duration.ofSeconds(5);
+
+    private RequestCoalescer coalescer;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final Sinks.One<String> backend = Sinks.one();
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new RequestCoalescer();
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+    }
+
+    @Test
+    void identicalRequestsShareOneCall() {
+        long deadline = inSeconds(10);
+        AtomicReference<String> first = new AtomicReference<>();
+        AtomicReference<String> second = new AtomicReference<>();
+        coalescer.coalesce("product-list", "all", deadline, pending()).subscribe(first::set);
+        coalescer.coalesce("product-list", "all", deadline + 1, pending()).subscribe(second::set);
+
+        assertThat(calls).hasValue(1);
+        backend.tryEmitValue("catalog");
+        assertThat(first).hasValue("catalog");
+        assertThat(second).hasValue("catalog");
+        assertThat(counter("product-list", "coalesced")).isEqualTo(1);
+        assertThat(coalescer.snapshot().get("inFlight")).isEqualTo(0);
+    }
+
+    @Test
+    void flightIsRemovedOnceDone() {
+        coalescer.coalesce("product-list", "all", null, immediate("first")).block(BLOCK);
+        String second = coalescer.coalesce("product-list", "all", null, immediate("second")).block(BLOCK);
+
+        assertThat(second).isEqualTo("second");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void assembledButUnsubscribedRequestIsNotJoined() {
+        // e.g. shed by the priority scheduler: its pipeline is built but never subscribed
+        coalescer.coalesce("product-list", "all", null, pending());
+        assertThat(coalescer.snapshot().get("inFlight")).isEqualTo(0);
+
+        String result = coalescer.coalesce("product-list", "all", null, immediate("fresh")).block(BLOCK);
+        assertThat(result).isEqualTo("fresh");
+        assertThat(counter("product-list", "coalesced")).isZero();
+    }
+
+    @Test
+    void shorterDeadlineMakesItsOwnCall() {
+        coalescer.coalesce("product-list", "all", inSeconds(10), pending()).subscribe();
+        String result = coalescer.coalesce("product-list", "all", inSeconds(1), immediate("own")).block(BLOCK);
+
+        assertThat(result).isEqualTo("own");
+        assertThat(calls).hasValue(2);
+        assertThat(counter("product-list", "deadlineMismatches")).isEqualTo(1);
+    }
+
+    @Test
+    void flightPastItsDeadlineIsNotJoined() {
+        coalescer.coalesce("product-list", "all", System.nanoTime() - 1, pending()).subscribe();
+        String result = coalescer.coalesce("product-list", "all", inSeconds(10), immediate("own")).block(BLOCK);
+
+        assertThat(result).isEqualTo("own");
+        assertThat(counter("product-list", "coalesced")).isZero();
+    }
+
+    @Test
+    void shedRequestLeavesNoFlightBehind() {
+        PriorityProperties properties = new PriorityProperties();
+        properties.setMaxConcurrency(1);
+        properties.getNormal().setMaxQueue(0);
+        PriorityScheduler scheduler = new PriorityScheduler(properties);
+        Disposable occupying = scheduler.schedule(Priority.NORMAL, Mono.<ResponseEntity<byte[]>>never(),
+                Function.identity()).subscribe();
+
+        ResponseEntity<byte[]> shed = scheduler.schedule(Priority.NORMAL,
+                coalescer.coalesce("cart", "42", inSeconds(3), backendResponse()), Function.identity()).block(BLOCK);
+        assertThat(shed.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(coalescer.snapshot().get("inFlight")).isEqualTo(0);
+        assertThat(calls).hasValue(0);
+
+        occupying.dispose();
+        ResponseEntity<byte[]> next = coalescer.coalesce("cart", "42", inSeconds(3), backendResponse()).block(BLOCK);
+        assertThat(next.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void queuedRequestIsNotJoinedWhileWaiting() {
+        PriorityProperties properties = new PriorityProperties();
+        properties.setMaxConcurrency(1);
+        properties.getNormal().setMaxQueue(1);
+        properties.getNormal().setMaxWait(Duration.ofSeconds(10));
+        PriorityScheduler scheduler = new PriorityScheduler(properties);
+        Disposable occupying = scheduler.schedule(Priority.NORMAL, Mono.<ResponseEntity<byte[]>>never(),
+                Function.identity()).subscribe();
+        Disposable queued = scheduler.schedule(Priority.NORMAL,
+                coalescer.coalesce("cart", "42", inSeconds(3), backendResponse()), Function.identity()).subscribe();
+
+        ResponseEntity<byte[]> direct = coalescer.coalesce("cart", "42", inSeconds(3), backendResponse()).block(BLOCK);
+        assertThat(direct.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(counter("cart", "coalesced")).isZero();
+
+        queued.dispose();
+        occupying.dispose();
+    }
+
+    private Supplier<Mono<String>> pending() {
+        return () -> {
+            calls.incrementAndGet();
+            return backend.asMono();
+        };
+    }
+
+    private Supplier<Mono<String>> immediate(String value) {
+        return () -> {
+            calls.incrementAndGet();
+            return Mono.just(value);
+        };
+    }
+
+    private Supplier<Mono<ResponseEntity<byte[]>>> backendResponse() {
+        return () -> {
+            calls.incrementAndGet();
+            return Mono.just(ResponseEntity.ok(new byte[0]));
+        };
+    }
+
+    private static long inSeconds(long seconds) {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long counter(String route, String name) {
+        Map<String, Object> routes = (Map<String, Object>) coalescer.snapshot().get("routes");
+        Map<String, Object> counters = (Map<String, Object>) routes.get(route);
+        return (Long) counters.get(name);
+    }
+}
@@ -0,0 +1,66 @@
+package com.demo.gateway.ratelimit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private RateLimiter limiter;
+
+    @AfterEach
+    void tearDown() {
+        limiter.shutdown();
+    }
+
+    @Test
+    void routeRejectionDoesNotSpendTheUsersToken() {
+        // Plenty per user, but the route only has room for two requests
+        limiter = limiter(limit(10, 2, 0.001, 2));
+        assertThat(limiter.tryAcquire("cart", "alice")).isZero();
+        assertThat(limiter.tryAcquire("cart", "alice")).isZero();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire("cart", "bob")).as("attempt %d", i).isPositive();
+        }
+
+        assertThat(stat("limitedRoute")).isEqualTo(10L);
+        assertThat(stat("limitedPerUser")).isZero();
+    }
+
+    @Test
+    void noisyUserIsLimitedBeforeTheRoute() {
+        limiter = limiter(limit(0.001, 2, 0.001, 3));
+        limiter.tryAcquire("cart", "alice");
+        limiter.tryAcquire("cart", "alice");
+
+        assertThat(limiter.tryAcquire("cart", "alice")).isPositive();
+        assertThat(limiter.tryAcquire("cart", "bob")).isZero();
+        assertThat(stat("limitedPerUser")).isEqualTo(1L);
+    }
+
+    private long stat(String name) {
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> routes = (Map<String, Map<String, Object>>) limiter.snapshot().get("routes");
+        return (Long) routes.get("cart").get(name);
+    }
+
+    private static RateLimiter limiter(RateLimitProperties.Limit limit) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(Map.of("cart", limit));
+        return new RateLimiter(properties);
+    }
+
+    private static RateLimitProperties.Limit limit(double perUserRate, int perUserBurst, double routeRate,
+                                                   int routeBurst) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setPerUserRate(perUserRate);
+        limit.setPerUserBurst(perUserBurst);
+        limit.setRouteRate(routeRate);
+        limit.setRouteBurst(routeBurst);
+        return limit;
+    }
+}
@@ -0,0 +1,143 @@
+package com.demo.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    // 10 requests/s with a burst of 5
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long TOLERANCE = 5 * INTERVAL;
+    private static final long NOW = TimeUnit.SECONDS.toNanos(1000);
+
+    @Test
+    void allowsTheBurstThenReportsTheWait() {
+        TokenBucket bucket = new TokenBucket(NOW);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(NOW, INTERVAL, TOLERANCE)).as("request %d", i).isZero();
+        }
+        assertThat(bucket.tryAcquire(NOW, INTERVAL, TOLERANCE)).isEqualTo(INTERVAL);
+        assertThat(bucket.tryAcquire(NOW + INTERVAL / 4, INTERVAL, TOLERANCE)).isEqualTo(INTERVAL * 3 / 4);
+    }
+
+    @Test
+    void rejectedRequestDoesNotConsumeAToken() {
+        TokenBucket bucket = new TokenBucket(NOW);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(NOW, INTERVAL, TOLERANCE);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertThat(bucket.tryAcquire(NOW, INTERVAL, TOLERANCE)).isPositive();
+        }
+
+        assertThat(bucket.tryAcquire(NOW + INTERVAL, INTERVAL, TOLERANCE)).isZero();
+    }
+
+    @Test
+    void refundReturnsTheTokenButNeverOverfills() {
+        TokenBucket bucket = new TokenBucket(NOW);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(NOW, INTERVAL, TOLERANCE);
+        }
+
+        bucket.refund(INTERVAL);
+        assertThat(bucket.tryAcquire(NOW, INTERVAL, TOLERANCE)).isZero();
+        assertThat(bucket.tryAcquire(NOW, INTERVAL, TOLERANCE)).isPositive();
+
+        // Refunded into a bucket that refilled meanwhile: still only the burst
+        long later = NOW + TimeUnit.MINUTES.toNanos(1);
+        bucket.refund(INTERVAL);
+        int allowed = 0;
+        while (bucket.tryAcquire(later, INTERVAL, TOLERANCE) == 0) {
+            allowed++;
+        }
+        assertThat(allowed).isEqualTo(5);
+    }
+
+    @Test
+    void refillsAtTheRateUpToTheBurst() {
+        TokenBucket bucket = new TokenBucket(NOW);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(NOW, INTERVAL, TOLERANCE);
+        }
+
+        // Two intervals later: exactly two more
+        long later = NOW + 2 * INTERVAL;
+        assertThat(bucket.tryAcquire(later, INTERVAL, TOLERANCE)).isZero();
+        assertThat(bucket.tryAcquire(later, INTERVAL, TOLERANCE)).isZero();
+        assertThat(bucket.tryAcquire(later, INTERVAL, TOLERANCE)).isPositive();
+
+        // Idle far longer than the burst takes to earn: still only the burst
+        long muchLater = later + TimeUnit.MINUTES.toNanos(1);
+        int allowed = 0;
+        while (bucket.tryAcquire(muchLater, INTERVAL, TOLERANCE) == 0) {
+            allowed++;
+        }
+        assertThat(allowed).isEqualTo(5);
+    }
+
+    @Test
+    void steadyRateIsNeverRejected() {
+        TokenBucket bucket = new TokenBucket(NOW);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(bucket.tryAcquire(NOW + i * INTERVAL, INTERVAL, TOLERANCE)).isZero();
+        }
+    }
+
+    @Test
+    void idleOnceFullForTheGivenTime() {
+        TokenBucket bucket = new TokenBucket(NOW);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(NOW, INTERVAL, TOLERANCE);
+        }
+        long full = NOW + TOLERANCE;
+        long idle = TimeUnit.SECONDS.toNanos(60);
+
+        assertThat(bucket.idleFor(full, idle)).isFalse();
+        assertThat(bucket.idleFor(full + idle - 1, idle)).isFalse();
+        assertThat(bucket.idleFor(full + idle, idle)).isTrue();
+    }
+
+    @Test
+    void concurrentRequestsShareTheBurst() throws Exception {
+        TokenBucket bucket = new TokenBucket(NOW);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        if (bucket.tryAcquire(NOW, INTERVAL, TOLERANCE) == 0) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            start.countDown();
+            int allowed = 0;
+            for (Future<Integer> result : results) {
+                allowed += result.get(10, TimeUnit.SECONDS);
+            }
+
+            assertThat(allowed).isEqualTo(5);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
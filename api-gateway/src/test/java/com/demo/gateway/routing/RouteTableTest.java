@@ -0,0 +1,152 @@
+package com.demo.gateway.routing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RouteTableTest {
+
+    private static final Map<String, WebClient> CLIENTS = Map.of(
+            "productWebClient", WebClient.create(),
+            "cartWebClient", WebClient.create(),
+            "orderWebClient", WebClient.create());
+
+    private static final MockEnvironment ENVIRONMENT = new MockEnvironment()
+            .withProperty("services.product.url", "http://product:8081")
+            .withProperty("services.cart.url", "http://cart:8082")
+            .withProperty("services.order.url", "http://order:8083");
+
+    private final RouteTable table = table(
+            route("product-list", "GET", "/api/products", "product", "all", 1),
+            route("product-detail", "GET", "/api/products/{id}", "product", "{id}", 1),
+            route("product-search", "GET", "/api/products/search", "product", null, 1),
+            route("cart-add-item", "POST", "/api/cart/{userId}/items", "cart", null, 0),
+            route("cart-remove-item", "DELETE", "/api/cart/{userId}/items/{itemId}", "cart", null, 0),
+            route("user-orders", "GET", "/api/orders/user/{userId}", "order", null, 1),
+            route("order-detail", "GET", "/api/orders/{orderId}", "order", "{orderId}", 1),
+            withTarget(route("revenue-metrics", "GET", "/api/metrics/revenue", "order", null, 1),
+                    "/api/orders/metrics/revenue"));
+
+    @Test
+    void literalSegmentWinsOverVariable() {
+        assertThat(routeId(HttpMethod.GET, "/api/products/search")).isEqualTo("product-search");
+        assertThat(routeId(HttpMethod.GET, "/api/orders/user/42")).isEqualTo("user-orders");
+    }
+
+    @Test
+    void variableCapturesSegment() {
+        RouteMatch match = table.match(HttpMethod.GET, "/api/products/7");
+
+        assertThat(match.getRoute().getId()).isEqualTo("product-detail");
+        assertThat(match.getRoute().cacheKey(match.getValues())).isEqualTo("7");
+        assertThat(match.getRoute().targetUri(match.getValues(), null)).isEqualTo("http://product:8081/api/products/7");
+    }
+
+    @Test
+    void backtracksToVariableWhenLiteralBranchHasNoRoute() {
+        // /api/orders/user only exists as a prefix of user-orders, so "user" is an order id here
+        RouteMatch match = table.match(HttpMethod.GET, "/api/orders/user");
+
+        assertThat(match.getRoute().getId()).isEqualTo("order-detail");
+        assertThat(match.getValues()[0]).isEqualTo("user");
+    }
+
+    @Test
+    void capturesVariablesInOrder() {
+        RouteMatch match = table.match(HttpMethod.DELETE, "/api/cart/42/items/7");
+
+        assertThat(match.getRoute().getId()).isEqualTo("cart-remove-item");
+        assertThat(match.getRoute().userId(match.getValues())).isEqualTo("42");
+        assertThat(match.getRoute().targetUri(match.getValues(), null))
+                .isEqualTo("http://cart:8082/api/cart/42/items/7");
+    }
+
+    @Test
+    void rewritesToTargetAndKeepsRawQuery() {
+        RouteMatch match = table.match(HttpMethod.GET, "/api/metrics/revenue");
+
+        assertThat(match.getRoute().targetUri(match.getValues(), "from=2024-01-01&to=%2A"))
+                .isEqualTo("http://order:8083/api/orders/metrics/revenue?from=2024-01-01&to=%2A");
+    }
+
+    @Test
+    void knownPathWithOtherMethodHasNoRoute() {
+        RouteMatch match = table.match(HttpMethod.PUT, "/api/cart/42/items");
+
+        assertThat(match.getRoute()).isNull();
+        assertThat(match.getAllowedMethods()).containsExactly(HttpMethod.POST);
+    }
+
+    @Test
+    void unknownOrMalformedPathsDoNotMatch() {
+        assertThat(table.match(HttpMethod.GET, "/api/unknown")).isNull();
+        assertThat(table.match(HttpMethod.GET, "/api/products/7/reviews")).isNull();
+        // An empty segment is not a value for {id}
+        assertThat(table.match(HttpMethod.GET, "/api/products/")).isNull();
+        assertThat(table.match(HttpMethod.GET, "api/products")).isNull();
+    }
+
+    @Test
+    void rejectsCacheKeyOnWriteRoute() {
+        assertThatThrownBy(() -> table(route("cart-add-item", "POST", "/api/cart/{userId}/items", "cart", "{userId}", 0)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("cart-add-item");
+    }
+
+    @Test
+    void rejectsRetriesOnWriteRoute() {
+        assertThatThrownBy(() -> table(route("checkout", "POST", "/api/orders", "order", null, 1)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("checkout");
+    }
+
+    @Test
+    void rejectsDuplicateRoute() {
+        assertThatThrownBy(() -> table(
+                route("a", "GET", "/api/products/{id}", "product", null, 0),
+                route("b", "GET", "/api/products/{productId}", "product", null, 0)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Duplicate route");
+    }
+
+    @Test
+    void rejectsUnknownService() {
+        assertThatThrownBy(() -> table(route("x", "GET", "/api/x", "inventory", null, 0)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("inventory");
+    }
+
+    private String routeId(HttpMethod method, String path) {
+        return table.match(method, path).getRoute().getId();
+    }
+
+    private static RouteTable table(RoutingProperties.Route... routes) {
+        RoutingProperties properties = new RoutingProperties();
+        properties.setRoutes(List.of(routes));
+        return new RouteTable(properties, CLIENTS, ENVIRONMENT);
+    }
+
+    private static RoutingProperties.Route route(String id, String method, String path, String service,
+                                                 String cacheKey, int retries) {
+        RoutingProperties.Route route = new RoutingProperties.Route();
+        route.setId(id);
+        route.setMethod(method);
+        route.setPath(path);
+        route.setService(service);
+        route.setCacheKey(cacheKey);
+        route.setRetries(retries);
+        return route;
+    }
+
+    private static RoutingProperties.Route withTarget(RoutingProperties.Route route, String target) {
+        route.setTarget(target);
+        return route;
+    }
+}
@@ -0,0 +1,59 @@
+#!/bin/bash
+
+# Pre-encoded catalog bodies vs per-request serialization in product-service
+# Runs the same load against a catalog read twice, first with pre-encoded bodies
+# switched off (Jackson serializes the cached views on every request), then on
+# (cached bytes are written as they are), and prints throughput and p50/p99.
+# The gain grows with the catalog: try it after a bulk import as well.
+#
+# Usage: ./benchmark-catalog.sh [url] [requests] [concurrency]
+
+LOADGEN_URL="http://localhost:9090"
+PRODUCT_SERVICE_URL="http://localhost:8081"
+TARGET_URL=${1:-$PRODUCT_SERVICE_URL/api/products}
+REQUESTS=${2:-50000}
+CONCURRENCY=${3:-100}
+
+if ! curl -s "$LOADGEN_URL/" > /dev/null 2>&1; then
+    echo "ERROR: Load generator is not running on $LOADGEN_URL"
+    exit 1
+fi
+
+if ! curl -s "$PRODUCT_SERVICE_URL/api/products/metrics/cache" > /dev/null 2>&1; then
+    echo "ERROR: Product service is not running on $PRODUCT_SERVICE_URL"
+    exit 1
+fi
+
+echo "=========================================="
+echo "Pre-encoded catalog benchmark"
+echo "=========================================="
+echo "  Target:      $TARGET_URL"
+echo "  Requests:    $REQUESTS per run"
+echo "  Concurrency: $CONCURRENCY"
+echo ""
+printf "%-14s %10s %8s %12s %10s %10s %10s\n" "bodies" "requests" "errors" "req/s" "p50 ms" "p99 ms" "max ms"
+
+run() {
+    local label=$1
+    local enabled=$2
+    curl -s -X POST "$PRODUCT_SERVICE_URL/api/products/control/encoded?enabled=$enabled" > /dev/null
+    # Warm up (JIT, cache, connections) before measuring
+    curl -s -X POST "$LOADGEN_URL/benchmark/saturation?url=$TARGET_URL&requests=$((REQUESTS / 10))&concurrency=$CONCURRENCY" > /dev/null
+    curl -s -X POST "$LOADGEN_URL/benchmark/saturation?url=$TARGET_URL&requests=$REQUESTS&concurrency=$CONCURRENCY" \
+        | LABEL="$label" python3 -c '
+import json, os, sys
+r = json.load(sys.stdin)
+print("%-14s %10d %8d %12.0f %10.2f %10.2f %10.2f" % (os.environ["LABEL"], r["requests"], r["errors"],
+      r["throughputRps"], r["p50Ms"], r["p99Ms"], r["maxMs"]))
+'
+}
+
+run "serialized" false
+run "pre-encoded" true
+
+echo ""
+echo "Encodes since startup (one per catalog version and entry when pre-encoded):"
+curl -s "$PRODUCT_SERVICE_URL/api/products/metrics/cache" | python3 -c '
+import json, sys
+print(json.dumps(json.load(sys.stdin)["encoded"], indent=2))
+'
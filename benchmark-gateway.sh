@@ -0,0 +1,82 @@
+#!/bin/bash
+
+# Gateway capacity benchmark: p99 latency at rising concurrency, with one client
+# connection per in-flight request, plus the gateway's peak open connections,
+# heap and threads while each step runs. Run it once per build (e.g. before and
+# after a runtime change) and compare the tables.
+#
+# Heap comes from jstat (JDK) and connections from ss, so the gateway needs no
+# extra endpoints and any build can be measured.
+#
+# Usage: ./benchmark-gateway.sh [url] [requests per step] [concurrency steps...]
+
+LOADGEN_URL="http://localhost:9090"
+TARGET_URL=${1:-http://localhost:8080/api/products}
+REQUESTS=${2:-50000}
+STEPS=${*:3}
+STEPS=${STEPS:-250 500 1000 2000 4000}
+GATEWAY_PORT=8080
+
+if ! curl -s "$LOADGEN_URL/" > /dev/null 2>&1; then
+    echo "ERROR: Load generator is not running on $LOADGEN_URL"
+    exit 1
+fi
+
+GATEWAY_PID=$(pgrep -f "api-gateway" | head -1)
+if [ -z "$GATEWAY_PID" ]; then
+    echo "ERROR: API Gateway process not found"
+    exit 1
+fi
+
+# Heap in use (eden + survivors + old gen), in MB
+heap_used_mb() {
+    jstat -gc "$GATEWAY_PID" 2>/dev/null | awk 'NR==2 { printf "%.0f", ($3 + $4 + $6 + $8) / 1024 }'
+}
+
+open_connections() {
+    ss -Htn state established "( sport = :$GATEWAY_PORT )" 2>/dev/null | wc -l
+}
+
+threads() {
+    ps -o nlwp= -p "$GATEWAY_PID" | tr -d ' '
+}
+
+echo "=========================================="
+echo "API Gateway saturation benchmark"
+echo "=========================================="
+echo "  Target:   $TARGET_URL"
+echo "  Requests: $REQUESTS per step"
+echo "  Gateway:  pid $GATEWAY_PID"
+echo ""
+printf "%-12s %10s %8s %10s %10s %10s %12s %10s %10s %14s\n" \
+    "concurrency" "requests" "errors" "req/s" "p50 ms" "p99 ms" "peak conns" "heap MB" "threads" "conns per GB"
+
+for CONCURRENCY in $STEPS; do
+    RESULT_FILE=$(mktemp)
+    curl -s -X POST "$LOADGEN_URL/benchmark/saturation?url=$TARGET_URL&requests=$REQUESTS&concurrency=$CONCURRENCY" \
+        > "$RESULT_FILE" &
+    CURL_PID=$!
+
+    PEAK_CONNS=0
+    PEAK_HEAP=0
+    PEAK_THREADS=0
+    while kill -0 "$CURL_PID" 2>/dev/null; do
+        CONNS=$(open_connections)
+        HEAP=$(heap_used_mb)
+        THREADS=$(threads)
+        [ "${CONNS:-0}" -gt "$PEAK_CONNS" ] && PEAK_CONNS=$CONNS
+        [ "${HEAP:-0}" -gt "$PEAK_HEAP" ] && PEAK_HEAP=$HEAP
+        [ "${THREADS:-0}" -gt "$PEAK_THREADS" ] && PEAK_THREADS=$THREADS
+        sleep 0.5
+    done
+
+    python3 -c '
+import json, sys
+r = json.load(open(sys.argv[1]))
+conns, heap, threads = int(sys.argv[2]), int(sys.argv[3]), int(sys.argv[4])
+per_gb = conns / (heap / 1024.0) if heap > 0 else 0
+print("%-12d %10d %8d %10.0f %10.2f %10.2f %12d %10d %10d %14.0f" % (r["concurrency"], r["requests"], r["errors"],
+      r["throughputRps"], r["p50Ms"], r["p99Ms"], conns, heap, threads, per_gb))
+' "$RESULT_FILE" "$PEAK_CONNS" "$PEAK_HEAP" "$PEAK_THREADS"
+    rm -f "$RESULT_FILE"
+done
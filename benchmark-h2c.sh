@@ -0,0 +1,37 @@
+#!/bin/bash
+
+# HTTP/1.1 vs h2c benchmark for gateway -> service traffic
+# Runs in the load generator against a backend service, with the same number of
+# connections for both protocols, and prints throughput and p50/p99 latency.
+#
+# Usage: ./benchmark-h2c.sh [url] [requests] [concurrency] [connections]
+
+LOADGEN_URL="http://localhost:9090"
+TARGET_URL=${1:-http://localhost:8081/api/products/1}
+REQUESTS=${2:-20000}
+CONCURRENCY=${3:-200}
+CONNECTIONS=${4:-8}
+
+if ! curl -s "$LOADGEN_URL/" > /dev/null 2>&1; then
+    echo "ERROR: Load generator is not running on $LOADGEN_URL"
+    exit 1
+fi
+
+echo "=========================================="
+echo "HTTP/1.1 vs h2c benchmark"
+echo "=========================================="
+echo "  Target:      $TARGET_URL"
+echo "  Requests:    $REQUESTS"
+echo "  Concurrency: $CONCURRENCY"
+echo "  Connections: $CONNECTIONS"
+echo ""
+
+curl -s -X POST "$LOADGEN_URL/benchmark/protocols?url=$TARGET_URL&requests=$REQUESTS&concurrency=$CONCURRENCY&connections=$CONNECTIONS" \
+    | python3 -c '
+import json, sys
+results = json.load(sys.stdin)
+print("%-10s %10s %8s %12s %10s %10s %10s" % ("protocol", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms"))
+for r in results.values():
+    print("%-10s %10d %8d %12.0f %10.2f %10.2f %10.2f" % (r["protocol"], r["requests"], r["errors"],
+          r["throughputRps"], r["p50Ms"], r["p99Ms"], r["maxMs"]))
+'
@@ -4,10 +4,12 @@ import com.demo.cart.dto.AddToCartRequest;
 import com.demo.cart.model.Cart;
 import com.demo.cart.model.CartItem;
 import com.demo.cart.repository.CartRepository;
+import com.demo.cart.service.RequestDeadline;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
@@ -59,6 +61,10 @@ public class CartController {
         int maxRetries = 3;
         
         for (int attempt = 1; attempt <= maxRetries; attempt++) {
+            // Caller already gave up (e.g. queued behind other requests): skip the DB work
+            if (RequestDeadline.expired()) {
+                return deadlineExceeded(userId, "add to cart", attempt);
+            }
             try {
                 // Find or create cart (handles race conditions)
                 Cart cart = getOrCreateCart(userId);
@@ -126,6 +132,11 @@ public class CartController {
                     return ResponseEntity.status(500)
                         .body("{\"error\":\"Concurrency Error\",\"message\":\"Failed to add item due to concurrent modifications. Please try again.\"}");
                 }
+
+                // No point backing off and retrying if the caller gives up before the next attempt
+                if (RequestDeadline.remainingMillis() <= 50L * attempt) {
+                    return deadlineExceeded(userId, "add to cart", attempt + 1);
+                }
                 
                 // Small delay before retry
                 try {
@@ -189,6 +200,10 @@ public class CartController {
                     return ResponseEntity.status(409)
                         .body("{\"error\":\"Concurrency Issue\",\"message\":\"Cart was updated by another process. Please try again.\"}");
                 }
+
+                if (RequestDeadline.remainingMillis() <= 50L * attempt) {
+                    return deadlineExceeded(userId, "clear cart", attempt + 1);
+                }
                 
                 // Small delay before retry
                 try {
@@ -205,6 +220,12 @@ public class CartController {
             .body("{\"error\":\"Unknown\",\"message\":\"Failed to clear cart after retries.\"}");
     }
 
+    private ResponseEntity<?> deadlineExceeded(String userId, String operation, int attempt) {
+        logger.warn("Deadline exceeded, abandoning {} - userId={}, attempt={}", operation, userId, attempt);
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+            .body("{\"error\":\"Deadline Exceeded\",\"message\":\"Request deadline passed before the operation could complete.\"}");
+    }
+
     // APM Funnel Tracking: Cart View Event
     @PostMapping("/{userId}/view-event")
     public ResponseEntity<Cart> trackCartView(@PathVariable String userId,
@@ -54,10 +54,34 @@ document.addEventListener('DOMContentLoaded', () => {
     initializeSessionTracking();
     initializeNavigation();
     initializeUserSection();
-    loadProducts();
-    updateCartBadge();
+    loadStorefront();
 });
 
+// Initial page load: catalog and cart badge in one gateway round trip.
+// Parts the gateway could not load in time fall back to their own calls.
+async function loadStorefront() {
+    try {
+        const response = await fetch(`${API_BASE_URL}/storefront/${currentUserId}?include=products,cart`);
+        const storefront = await response.json();
+        
+        if (storefront.products) {
+            renderProducts(storefront.products);
+        } else {
+            loadProducts();
+        }
+        
+        if (storefront.cart) {
+            renderCartBadge(storefront.cart);
+        } else {
+            updateCartBadge();
+        }
+    } catch (error) {
+        console.error('Error loading storefront, falling back to individual calls:', error);
+        loadProducts();
+        updateCartBadge();
+    }
+}
+
 // Navigation
 function initializeNavigation() {
     const navButtons = document.querySelectorAll('.nav-btn');
@@ -144,17 +168,7 @@ async function loadProducts() {
         const response = await fetch(`${API_BASE_URL}/products`);
         const products = await response.json();
         
-        loading.style.display = 'none';
-        
-        if (products.length === 0) {
-            grid.innerHTML = '<div class="empty-state"><div class="empty-state-icon">📦</div><h3>No products available</h3></div>';
-            return;
-        }
-        
-        products.forEach(product => {
-            const card = createProductCard(product);
-            grid.appendChild(card);
-        });
+        renderProducts(products);
     } catch (error) {
         loading.style.display = 'none';
         showToast('Failed to load products: ' + error.message, 'error');
@@ -162,6 +176,24 @@ async function loadProducts() {
     }
 }
 
+function renderProducts(products) {
+    const loading = document.getElementById('productsLoading');
+    const grid = document.getElementById('productsGrid');
+    
+    loading.style.display = 'none';
+    grid.innerHTML = '';
+    
+    if (products.length === 0) {
+        grid.innerHTML = '<div class="empty-state"><div class="empty-state-icon">📦</div><h3>No products available</h3></div>';
+        return;
+    }
+    
+    products.forEach(product => {
+        const card = createProductCard(product);
+        grid.appendChild(card);
+    });
+}
+
 function createProductCard(product) {
     const card = document.createElement('div');
     card.className = 'product-card';
@@ -585,15 +617,19 @@ async function updateCartBadge() {
         const response = await fetch(`${API_BASE_URL}/cart/${currentUserId}`);
         const cart = await response.json();
         
-        const badge = document.getElementById('cartBadge');
-        const itemCount = cart.items ? cart.items.length : 0;
-        badge.textContent = itemCount;
-        badge.style.display = itemCount > 0 ? 'flex' : 'none';
+        renderCartBadge(cart);
     } catch (error) {
         console.error('Error updating cart badge:', error);
     }
 }
 
+function renderCartBadge(cart) {
+    const badge = document.getElementById('cartBadge');
+    const itemCount = cart.items ? cart.items.length : 0;
+    badge.textContent = itemCount;
+    badge.style.display = itemCount > 0 ? 'flex' : 'none';
+}
+
 // Toast Notifications
 function showToast(message, type = 'success') {
     const container = document.getElementById('toastContainer');
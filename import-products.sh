@@ -0,0 +1,50 @@
+#!/bin/bash
+
+# Bulk product import: generates COUNT synthetic products and streams them to
+# product-service as NDJSON or CSV, without building the file first, then
+# prints what the service reports (rows imported, batches, rows/sec).
+#
+# Usage: ./import-products.sh [count] [ndjson|csv]
+
+PRODUCT_SERVICE_URL="http://localhost:8081"
+COUNT=${1:-1000000}
+FORMAT=${2:-ndjson}
+
+if ! curl -s "$PRODUCT_SERVICE_URL/api/products/metrics/cache" > /dev/null 2>&1; then
+    echo "ERROR: Product service is not running on $PRODUCT_SERVICE_URL"
+    exit 1
+fi
+
+case "$FORMAT" in
+    ndjson) CONTENT_TYPE="application/x-ndjson" ;;
+    csv)    CONTENT_TYPE="text/csv" ;;
+    *)      echo "ERROR: format must be ndjson or csv"; exit 1 ;;
+esac
+
+echo "=========================================="
+echo "Bulk product import"
+echo "=========================================="
+echo "  Products: $COUNT"
+echo "  Format:   $FORMAT"
+echo ""
+
+python3 -c '
+import json, random, sys
+count, fmt = int(sys.argv[1]), sys.argv[2]
+adjectives = ["Wireless", "Mechanical", "Portable", "Compact", "Ergonomic", "Premium", "Gaming", "Smart"]
+nouns = ["Mouse", "Keyboard", "Monitor", "Headphones", "Speaker", "Webcam", "Charger", "Microphone"]
+out = sys.stdout
+if fmt == "csv":
+    out.write("name,description,price,stock\n")
+for i in range(1, count + 1):
+    name = "%s %s %d" % (random.choice(adjectives), random.choice(nouns), i)
+    description = "Bulk imported %s" % name.lower()
+    price = round(random.uniform(5, 2000), 2)
+    stock = random.randint(0, 500)
+    if fmt == "csv":
+        out.write("%s,%s,%.2f,%d\n" % (name, description, price, stock))
+    else:
+        out.write(json.dumps({"name": name, "description": description, "price": price, "stock": stock}) + "\n")
+' "$COUNT" "$FORMAT" \
+    | curl -s -X POST -T - -H "Content-Type: $CONTENT_TYPE" "$PRODUCT_SERVICE_URL/api/products/import" \
+    | python3 -m json.tool
@@ -1,12 +1,17 @@
 package com.demo.loadgen.controller;
 
+import com.demo.loadgen.model.BenchmarkResult;
 import com.demo.loadgen.model.LoadStats;
 import com.demo.loadgen.service.LoadGeneratorService;
+import com.demo.loadgen.service.ProtocolBenchmarkService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import reactor.netty.http.HttpProtocol;
+
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -16,13 +21,16 @@ public class ControlController {
     @Autowired
     private LoadGeneratorService loadGeneratorService;
 
+    @Autowired
+    private ProtocolBenchmarkService protocolBenchmarkService;
+
     @GetMapping("/")
     public ResponseEntity<Map<String, String>> home() {
         Map<String, String> info = new HashMap<>();
         info.put("name", "E-Commerce Load Generator");
         info.put("version", "1.0.0");
         info.put("status", "running");
-        info.put("endpoints", "/control, /stats, /enable, /disable, /intensity, /reset");
+        info.put("endpoints", "/control, /stats, /enable, /disable, /intensity, /reset, /benchmark/protocols, /benchmark/saturation");
         return ResponseEntity.ok(info);
     }
 
@@ -34,6 +42,8 @@ public class ControlController {
         controls.put("intensity", "POST /intensity?level={low|medium|high} - Set load intensity");
         controls.put("reset", "POST /reset - Reset statistics");
         controls.put("stats", "GET /stats - View statistics");
+        controls.put("benchmark", "POST /benchmark/protocols?url={url}&requests=&concurrency=&connections= - Compare HTTP/1.1 and h2c");
+        controls.put("saturation", "POST /benchmark/saturation?url={url}&requests=&concurrency= - HTTP/1.1, one connection per in-flight request");
         return ResponseEntity.ok(controls);
     }
 
@@ -77,6 +87,25 @@ public class ControlController {
         response.put("message", "Statistics reset successfully");
         return ResponseEntity.ok(response);
     }
-}
 
+    @PostMapping("/benchmark/protocols")
+    public ResponseEntity<Map<String, BenchmarkResult>> benchmarkProtocols(
+            @RequestParam(defaultValue = "http://localhost:8081/api/products/1") String url,
+            @RequestParam(defaultValue = "20000") int requests,
+            @RequestParam(defaultValue = "200") int concurrency,
+            @RequestParam(defaultValue = "8") int connections) {
+        Map<String, BenchmarkResult> results = new LinkedHashMap<>();
+        results.put("http1", protocolBenchmarkService.run(url, HttpProtocol.HTTP11, requests, concurrency, connections));
+        results.put("h2c", protocolBenchmarkService.run(url, HttpProtocol.H2C, requests, concurrency, connections));
+        return ResponseEntity.ok(results);
+    }
 
+    // Gateway capacity: every in-flight request holds its own client connection, like many browsers would
+    @PostMapping("/benchmark/saturation")
+    public ResponseEntity<BenchmarkResult> benchmarkSaturation(
+            @RequestParam(defaultValue = "http://localhost:8080/api/products") String url,
+            @RequestParam(defaultValue = "50000") int requests,
+            @RequestParam(defaultValue = "1000") int concurrency) {
+        return ResponseEntity.ok(protocolBenchmarkService.run(url, HttpProtocol.HTTP11, requests, concurrency, concurrency));
+    }
+}
@@ -0,0 +1,69 @@
+package com.demo.loadgen.model;
+
+public class BenchmarkResult {
+    private final String protocol;
+    private final int connections;
+    private final int concurrency;
+    private final long requests;
+    private final long errors;
+    private final long durationMs;
+    private final double throughputRps;
+    private final double p50Ms;
+    private final double p99Ms;
+    private final double maxMs;
+
+    public BenchmarkResult(String protocol, int connections, int concurrency, long requests, long errors,
+                           long durationMs, double p50Ms, double p99Ms, double maxMs) {
+        this.protocol = protocol;
+        this.connections = connections;
+        this.concurrency = concurrency;
+        this.requests = requests;
+        this.errors = errors;
+        this.durationMs = durationMs;
+        this.throughputRps = durationMs > 0 ? requests * 1000.0 / durationMs : 0;
+        this.p50Ms = p50Ms;
+        this.p99Ms = p99Ms;
+        this.maxMs = maxMs;
+    }
+
+    // Getters
+    public String getProtocol() {
+        return protocol;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public double getThroughputRps() {
+        return throughputRps;
+    }
+
+    public double getP50Ms() {
+        return p50Ms;
+    }
+
+    public double getP99Ms() {
+        return p99Ms;
+    }
+
+    public double getMaxMs() {
+        return maxMs;
+    }
+}
@@ -52,8 +52,13 @@ public class LoadGeneratorService {
     private static final String PERSONA_VIEW_ABANDON = "view_abandon";
     private static final String PERSONA_BUYER = "buyer";
     
+    // Requests are abandoned after this long; the gateway and services stop work on them too
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+    
     public LoadGeneratorService(WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder.build();
+        this.webClient = webClientBuilder
+            .defaultHeader("X-Deadline-Ms", String.valueOf(REQUEST_TIMEOUT.toMillis()))
+            .build();
         initializeActionCounts();
     }
     
@@ -424,7 +429,7 @@ public class LoadGeneratorService {
                 failedRequests.incrementAndGet();
             })
             .onErrorResume(e -> Mono.just("Error"))
-            .timeout(Duration.ofSeconds(5));
+            .timeout(REQUEST_TIMEOUT);
     }
     
     // Helper methods
@@ -0,0 +1,90 @@
+package com.demo.loadgen.service;
+
+import com.demo.loadgen.model.BenchmarkResult;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares HTTP/1.1 and cleartext HTTP/2 (h2c) against one URL, e.g. a backend
+ * service called directly the way the gateway calls it. Both protocols get the
+ * same number of connections: with HTTP/1.1 that caps requests in flight,
+ * with h2c every connection multiplexes many concurrent streams.
+ */
+@Service
+public class ProtocolBenchmarkService {
+
+    public BenchmarkResult run(String url, HttpProtocol protocol, int requests, int concurrency, int connections) {
+        ConnectionProvider.Builder providerBuilder = ConnectionProvider.builder("benchmark-" + protocol.name().toLowerCase())
+                .maxConnections(connections)
+                .pendingAcquireMaxCount(-1);
+        if (protocol == HttpProtocol.H2C) {
+            providerBuilder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .minConnections(1)
+                    .maxConnections(connections)
+                    .maxConcurrentStreams(Math.max(1, concurrency / connections + 1))
+                    .build());
+        }
+        ConnectionProvider provider = providerBuilder.build();
+        try {
+            WebClient client = WebClient.builder()
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider).protocol(protocol)))
+                    .build();
+
+            // Warm up connections and JIT on both ends before measuring
+            execute(client, url, Math.min(requests, 500), concurrency, new long[Math.min(requests, 500)], new AtomicLong());
+
+            long[] latencies = new long[requests];
+            AtomicLong errors = new AtomicLong();
+            long start = System.nanoTime();
+            execute(client, url, requests, concurrency, latencies, errors);
+            long durationMs = (System.nanoTime() - start) / 1_000_000;
+
+            Arrays.sort(latencies);
+            return new BenchmarkResult(protocol == HttpProtocol.H2C ? "h2c" : "http/1.1", connections, concurrency,
+                    requests, errors.get(), durationMs,
+                    percentileMs(latencies, 0.50), percentileMs(latencies, 0.99),
+                    latencies.length > 0 ? latencies[latencies.length - 1] / 1_000_000.0 : 0);
+        } finally {
+            provider.dispose();
+        }
+    }
+
+    private void execute(WebClient client, String url, int requests, int concurrency,
+                         long[] latencies, AtomicLong errors) {
+        AtomicInteger index = new AtomicInteger();
+        Flux.range(0, requests)
+                .flatMap(i -> {
+                    long start = System.nanoTime();
+                    return client.get()
+                            .uri(url)
+                            .retrieve()
+                            .toBodilessEntity()
+                            // Connection failures and non-2xx statuses both count as errors
+                            .onErrorResume(e -> {
+                                errors.incrementAndGet();
+                                return Mono.empty();
+                            })
+                            .doFinally(signal -> latencies[index.getAndIncrement()] = System.nanoTime() - start);
+                }, concurrency)
+                .blockLast();
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, rank)] / 1_000_000.0;
+    }
+}
@@ -5,17 +5,27 @@ import com.demo.order.model.Order;
 import com.demo.order.model.OrderItem;
 import com.demo.order.model.OrderStatus;
 import com.demo.order.repository.OrderRepository;
+import com.demo.order.service.RequestDeadline;
+import com.demo.order.service.UserOrderVersions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -28,6 +38,9 @@ public class OrderController {
     
     @Autowired
     private WebClient.Builder webClientBuilder;
+
+    @Autowired
+    private UserOrderVersions userOrderVersions;
     
     @Value("${services.cart.url:http://localhost:8082}")
     private String cartServiceUrl;
@@ -82,7 +95,15 @@ public class OrderController {
         });
 
         order.setStatus(OrderStatus.CONFIRMED);
+
+        // The gateway has already given up on this request: don't create an order nobody will see confirmed
+        if (RequestDeadline.expired()) {
+            logger.warn("FUNNEL_DROP_OFF: Checkout abandoned, deadline exceeded before saving order - userId={}, sessionId={}",
+                       userId, sessionId);
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        }
         Order savedOrder = orderRepository.save(order);
+        userOrderVersions.increment(userId);
         
         logger.info("FUNNEL_STAGE: Order created - orderId={}, userId={}", savedOrder.getId(), userId);
         
@@ -111,9 +132,14 @@ public class OrderController {
                 .body(savedOrder);
     }
 
+    // The user's order-history version is the ETag; a matching If-None-Match gets 304 without a query
     @GetMapping("/user/{userId}")
-    public List<Order> getUserOrders(@PathVariable String userId) {
-        return orderRepository.findByUserId(userId);
+    public ResponseEntity<List<Order>> getUserOrders(@PathVariable String userId, WebRequest webRequest) {
+        String etag = userOrderVersions.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(orderRepository.findByUserId(userId));
     }
 
     @GetMapping("/{orderId}")
@@ -124,17 +150,22 @@ public class OrderController {
     }
 
     @GetMapping
-    public List<Order> getAllOrders() {
+    public ResponseEntity<List<Order>> getAllOrders() {
         // APM Demo: Simulate slow response time
         if (slowModeEnabled) {
             try {
                 System.out.println("🐌 SLOW MODE: Delaying response by " + slowModeDelayMs + "ms for APM demo");
-                Thread.sleep(slowModeDelayMs);
+                // Stop sleeping once the caller's deadline has passed
+                Thread.sleep(Math.min(slowModeDelayMs, RequestDeadline.remainingMillis()));
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
         }
-        return orderRepository.findAll();
+        if (RequestDeadline.expired()) {
+            logger.warn("Order list abandoned, deadline exceeded before query");
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        }
+        return ResponseEntity.ok(orderRepository.findAll());
     }
 
     @PutMapping("/{orderId}/status")
@@ -143,7 +174,9 @@ public class OrderController {
         return orderRepository.findById(orderId)
                 .map(order -> {
                     order.setStatus(status);
-                    return ResponseEntity.ok(orderRepository.save(order));
+                    Order saved = orderRepository.save(order);
+                    userOrderVersions.increment(order.getUserId());
+                    return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -201,42 +234,54 @@ public class OrderController {
         return ResponseEntity.ok(metrics);
     }
     
-    // Helper method: Clear cart with retry logic for optimistic locking failures
+    // Helper method: Clear cart, retrying optimistic locking conflicts with jittered exponential backoff
+    // on the Reactor timer. The order is already saved, so the first attempt is always made; retries only
+    // while the deadline allows
     private void clearCartWithRetry(String userId) {
-        int maxRetries = 3;
-        int retryDelay = 100; // milliseconds
+        int maxRetries = 2;
+        long remaining = RequestDeadline.remainingMillis();
+        // nanoTime values are only compared by subtraction, so "no deadline" is a flag, not a Long.MAX_VALUE sentinel
+        boolean bounded = remaining != Long.MAX_VALUE;
+        long deadline = bounded ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(remaining) : 0;
+        AtomicInteger attempts = new AtomicInteger();
         
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
-            try {
-                webClientBuilder.build()
-                        .delete()
-                        .uri(cartServiceUrl + "/api/cart/" + userId)
-                        .retrieve()
-                        .bodyToMono(String.class)
-                        .block();
-                
-                logger.info("FUNNEL_STAGE: Cart cleared successfully - userId={}, attempt={}", userId, attempt);
-                return; // Success, exit
-                
-            } catch (Exception e) {
-                String errorMsg = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
-                
-                if (attempt < maxRetries && (errorMsg.contains("OptimisticLocking") || errorMsg.contains("StaleObject"))) {
-                    logger.warn("FUNNEL_RETRY: Optimistic locking failure clearing cart - userId={}, attempt={}/{}, retrying in {}ms", 
-                               userId, attempt, maxRetries, retryDelay);
-                    try {
-                        Thread.sleep(retryDelay);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                    }
-                } else {
-                    logger.error("FUNNEL_ERROR: Failed to clear cart after checkout - userId={}, attempt={}/{}, error={}", 
-                                userId, attempt, maxRetries, errorMsg);
-                    // Don't fail the checkout if cart clearing fails
-                    return;
-                }
-            }
+        try {
+            Mono.defer(() -> {
+                        attempts.incrementAndGet();
+                        WebClient.RequestHeadersSpec<?> request = webClientBuilder.build()
+                                .delete()
+                                .uri(cartServiceUrl + "/api/cart/" + userId);
+                        if (bounded) {
+                            long left = Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+                            request = request.header(RequestDeadline.HEADER, Long.toString(left));
+                        }
+                        return request.retrieve().bodyToMono(String.class);
+                    })
+                    .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(50))
+                            .maxBackoff(Duration.ofMillis(500))
+                            .jitter(0.5)
+                            .filter(e -> isConcurrencyConflict(e) && (!bounded || deadline - System.nanoTime() > 0))
+                            .doBeforeRetry(signal -> logger.warn(
+                                    "FUNNEL_RETRY: Concurrency conflict clearing cart - userId={}, attempt={}/{}, retrying",
+                                    userId, signal.totalRetries() + 1, maxRetries + 1))
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                    .block();
+            
+            logger.info("FUNNEL_STAGE: Cart cleared successfully - userId={}, attempt={}", userId, attempts.get());
+        } catch (Exception e) {
+            String errorMsg = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            logger.error("FUNNEL_ERROR: Failed to clear cart after checkout - userId={}, attempt={}/{}, error={}", 
+                        userId, attempts.get(), maxRetries + 1, errorMsg);
+            // Don't fail the checkout if cart clearing fails
+        }
+    }
+    
+    // cart-service answers 409 when the cart was modified concurrently
+    private static boolean isConcurrencyConflict(Throwable e) {
+        if (e instanceof WebClientResponseException.Conflict) {
+            return true;
         }
+        String errorMsg = e.getMessage();
+        return errorMsg != null && (errorMsg.contains("OptimisticLocking") || errorMsg.contains("StaleObject"));
     }
 }
-
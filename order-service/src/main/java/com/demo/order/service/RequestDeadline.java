@@ -0,0 +1,56 @@
+package com.demo.order.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline of the request being handled on the current thread, from the
+ * X-Deadline-Ms budget the API gateway sends (see DeadlineFilter). Work whose
+ * result can no longer reach the caller is abandoned by checking
+ * {@link #expired()} before expensive steps; requests without the header
+ * never expire.
+ */
+public final class RequestDeadline {
+
+    public static final String HEADER = "X-Deadline-Ms";
+
+    // Longer budgets are cut to this, so adding one to System.nanoTime() cannot overflow
+    private static final long MAX_BUDGET_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * Start the deadline for the current request; a missing or malformed budget means none
+     */
+    public static void start(String budgetMillis) {
+        if (budgetMillis == null) {
+            return;
+        }
+        try {
+            long budget = Math.min(MAX_BUDGET_MILLIS, Math.max(0, Long.parseLong(budgetMillis.trim())));
+            DEADLINE.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget));
+        } catch (NumberFormatException e) {
+            DEADLINE.remove();
+        }
+    }
+
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    public static boolean expired() {
+        Long deadline = DEADLINE.get();
+        return deadline != null && deadline - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Milliseconds left, or Long.MAX_VALUE when the request has no deadline
+     */
+    public static long remainingMillis() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? Long.MAX_VALUE
+                : Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+}
@@ -0,0 +1,30 @@
+package com.demo.order.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user version of the order history, bumped whenever one of the user's
+ * orders is created or changes. Used as a strong ETag for the user's order
+ * list, so an unchanged history is answered with 304 without a query.
+ * The startup time is part of the tag because the in-memory database is
+ * recreated on restart.
+ */
+@Component
+public class UserOrderVersions {
+
+    private final long epoch = System.currentTimeMillis();
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public void increment(String userId) {
+        versions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    public String etag(String userId) {
+        AtomicLong version = versions.get(userId);
+        return "\"orders-" + epoch + "-" + (version != null ? version.get() : 0) + "\"";
+    }
+}
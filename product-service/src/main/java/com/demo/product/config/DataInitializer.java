@@ -2,6 +2,7 @@ package com.demo.product.config;
 
 import com.demo.product.model.Product;
 import com.demo.product.repository.ProductRepository;
+import com.demo.product.service.CatalogVersion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -12,6 +13,9 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CatalogVersion catalogVersion;
+
     @Override
     public void run(String... args) {
         // Initialize with sample products
@@ -20,6 +24,8 @@ public class DataInitializer implements CommandLineRunner {
         productRepository.save(new Product("Keyboard", "Mechanical keyboard", 79.99, 30));
         productRepository.save(new Product("Monitor", "27-inch 4K monitor", 399.99, 15));
         productRepository.save(new Product("Headphones", "Noise-cancelling headphones", 199.99, 25));
+        // Requests may arrive while seeding; don't keep serving a catalog cached before it finished
+        catalogVersion.increment();
         
         System.out.println("Sample products initialized!");
     }
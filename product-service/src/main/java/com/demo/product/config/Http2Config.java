@@ -0,0 +1,36 @@
+package com.demo.product.config;
+
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cleartext HTTP/2 (h2c) for traffic from the API gateway. server.http2.enabled
+ * adds Tomcat's HTTP/2 protocol (prior knowledge and upgrade); its default of
+ * 20 concurrently executing streams per connection is raised here so a single
+ * multiplexed gateway connection is not throttled.
+ */
+@Configuration
+public class Http2Config {
+
+    @Value("${http2.max-concurrent-streams:200}")
+    private long maxConcurrentStreams;
+
+    @Value("${http2.max-concurrent-stream-execution:200}")
+    private int maxConcurrentStreamExecution;
+
+    @Bean
+    public TomcatConnectorCustomizer http2StreamLimits() {
+        return connector -> {
+            for (UpgradeProtocol protocol : connector.findUpgradeProtocols()) {
+                if (protocol instanceof Http2Protocol http2) {
+                    http2.setMaxConcurrentStreams(maxConcurrentStreams);
+                    http2.setMaxConcurrentStreamExecution(maxConcurrentStreamExecution);
+                }
+            }
+        };
+    }
+}
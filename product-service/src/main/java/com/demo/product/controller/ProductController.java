@@ -1,12 +1,30 @@
 package com.demo.product.controller;
 
+import com.demo.product.dto.ProductPage;
+import com.demo.product.dto.ProductView;
+import com.demo.product.dto.SearchResult;
 import com.demo.product.model.Product;
 import com.demo.product.repository.ProductRepository;
+import com.demo.product.service.CatalogCache;
+import com.demo.product.service.CatalogEncoder;
+import com.demo.product.service.CatalogVersion;
+import com.demo.product.service.ProductListing;
+import com.demo.product.service.ProductSearchIndex;
+import com.demo.product.service.GatewayCacheInvalidator;
+import com.demo.product.service.ProductImporter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/products")
@@ -15,21 +33,161 @@ public class ProductController {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private GatewayCacheInvalidator gatewayCacheInvalidator;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private CatalogEncoder catalogEncoder;
+
+    @Autowired
+    private ProductListing productListing;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductImporter productImporter;
+
+    // Catalog reads carry the catalog version as ETag; a matching If-None-Match gets 304 without a query.
+    // Otherwise they are served from the in-process catalog cache; the ETag is the version of the data served,
+    // and the body is written from bytes encoded once per version (see CatalogEncoder).
+    // With any of limit, cursor, sort or fields the listing is paged instead ({items, sort, limit, nextCursor},
+    // see ProductListing); without them it is the whole catalog as a plain array, as existing clients expect
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) String sort,
+                                            @RequestParam(required = false) String fields,
+                                            WebRequest webRequest) {
+        boolean paged = limit != null || cursor != null || sort != null || fields != null;
+        if (!paged && catalogEncoder.isEnabled()) {
+            CatalogCache.Cached<List<ProductView>> catalog = catalogCache.all();
+            return encoded(catalog.getVersion(), catalog.encoded(catalogEncoder::encode), webRequest);
+        }
+        String etag = catalogVersion.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        if (paged) {
+            try {
+                ProductPage page = productListing.page(sort, cursor, limit, fields);
+                return ResponseEntity.ok().eTag(etag).body(page);
+            } catch (IllegalArgumentException e) {
+                return badRequest(e);
+            }
+        }
+        CatalogCache.Cached<List<ProductView>> catalog = catalogCache.all();
+        return ResponseEntity.ok().eTag(catalogVersion.etag(catalog.getVersion())).body(catalog.getValue());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return productRepository.findById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<?> getProductById(@PathVariable Long id, WebRequest webRequest) {
+        if (catalogEncoder.isEnabled()) {
+            CatalogCache.Cached<Optional<ProductView>> product = catalogCache.byId(id);
+            if (product.getValue().isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return encoded(product.getVersion(), product.encoded(view -> catalogEncoder.encode(view.get())), webRequest);
+        }
+        if (webRequest.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        CatalogCache.Cached<Optional<ProductView>> product = catalogCache.byId(id);
+        String etag = catalogVersion.etag(product.getVersion());
+        return product.getValue()
+                .map(view -> ResponseEntity.ok().eTag(etag).body(view))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Ranked full-text search over name and description from the in-memory index; every word must match,
+    // as a whole word, a prefix (search-as-you-type) or with one typo
+    @GetMapping("/search")
+    public ResponseEntity<SearchResult> search(@RequestParam(defaultValue = "") String q,
+                                               @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productSearchIndex.search(q, limit));
+    }
+
+    // Search index size and query times
+    @GetMapping("/metrics/search")
+    public ResponseEntity<Map<String, Object>> getSearchMetrics() {
+        return ResponseEntity.ok(productSearchIndex.snapshot());
+    }
+
+    // Catalog cache hit rate and load times, and how often bodies were encoded
+    @GetMapping("/metrics/cache")
+    public ResponseEntity<Map<String, Object>> getCacheMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>(catalogCache.snapshot());
+        metrics.put("encoded", catalogEncoder.snapshot());
+        return ResponseEntity.ok(metrics);
+    }
+
+    // Switch pre-encoded catalog bodies on or off, e.g. to benchmark against per-request serialization
+    @PostMapping("/control/encoded")
+    public ResponseEntity<Map<String, Object>> setEncoded(@RequestParam(defaultValue = "true") boolean enabled) {
+        catalogEncoder.setEnabled(enabled);
+        return ResponseEntity.ok(catalogEncoder.snapshot());
+    }
+
+    // Pre-encoded bytes are written as they are; the gzip copy goes to clients that accept it, under its own ETag.
+    // A cache hit needs no query, so there is no point checking If-None-Match before it
+    private ResponseEntity<byte[]> encoded(long version, CatalogEncoder.Encoded body, WebRequest webRequest) {
+        String acceptEncoding = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = body.getGzip() != null && acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        String etag = gzip ? catalogVersion.gzipEtag(version) : catalogVersion.etag(version);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON);
+        if (body.getGzip() == null) {
+            return response.body(body.getJson());
+        }
+        response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        return gzip
+                ? response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.getGzip())
+                : response.body(body.getJson());
+    }
+
     @PostMapping
     public Product createProduct(@RequestBody Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        catalogVersion.increment();
+        productSearchIndex.index(ProductView.of(saved));
+        gatewayCacheInvalidator.productCreated();
+        return saved;
+    }
+
+    // Bulk import from a streamed body, parsed and written in batches as it arrives (see ProductImporter):
+    // NDJSON (application/x-ndjson) or CSV with a header row (text/csv). Answers with rows/sec
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> importNdjson(InputStream body) throws IOException {
+        return importProducts(body, ProductImporter.Format.NDJSON);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<?> importCsv(InputStream body) throws IOException {
+        return importProducts(body, ProductImporter.Format.CSV);
+    }
+
+    private ResponseEntity<?> importProducts(InputStream body, ProductImporter.Format format) throws IOException {
+        try {
+            return ResponseEntity.ok(productImporter.importProducts(body, format));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    private static ResponseEntity<?> badRequest(IllegalArgumentException e) {
+        // The message quotes input data (a row, a sort, a cursor), so let Jackson escape it
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error", "Bad Request");
+        error.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(error);
     }
 
     @PutMapping("/{id}")
@@ -40,7 +198,11 @@ public class ProductController {
                     product.setDescription(productDetails.getDescription());
                     product.setPrice(productDetails.getPrice());
                     product.setStock(productDetails.getStock());
-                    return ResponseEntity.ok(productRepository.save(product));
+                    Product saved = productRepository.save(product);
+                    catalogVersion.increment();
+                    productSearchIndex.index(ProductView.of(saved));
+                    gatewayCacheInvalidator.productChanged(id);
+                    return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -50,6 +212,9 @@ public class ProductController {
         return productRepository.findById(id)
                 .map(product -> {
                     productRepository.delete(product);
+                    catalogVersion.increment();
+                    productSearchIndex.delete(id);
+                    gatewayCacheInvalidator.productChanged(id);
                     return ResponseEntity.ok().build();
                 })
                 .orElse(ResponseEntity.notFound().build());
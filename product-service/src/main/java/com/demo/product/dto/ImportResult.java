@@ -0,0 +1,37 @@
+package com.demo.product.dto;
+
+/**
+ * Response of POST /api/products/import: how many products were written, in
+ * how many committed batches, and the rate over the whole request (parsing
+ * included, so it is what the client saw)
+ */
+public final class ImportResult {
+
+    private final long imported;
+    private final int batches;
+    private final long elapsedMs;
+    private final double rowsPerSecond;
+
+    public ImportResult(long imported, int batches, long elapsedMs, double rowsPerSecond) {
+        this.imported = imported;
+        this.batches = batches;
+        this.elapsedMs = elapsedMs;
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+}
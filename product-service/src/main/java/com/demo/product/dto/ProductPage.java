@@ -0,0 +1,39 @@
+package com.demo.product.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of the product listing: the products (only the requested fields)
+ * and the cursor of the next page, null on the last one
+ */
+public final class ProductPage {
+
+    private final List<Map<String, Object>> items;
+    private final String sort;
+    private final int limit;
+    private final String nextCursor;
+
+    public ProductPage(List<Map<String, Object>> items, String sort, int limit, String nextCursor) {
+        this.items = items;
+        this.sort = sort;
+        this.limit = limit;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Map<String, Object>> getItems() {
+        return items;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
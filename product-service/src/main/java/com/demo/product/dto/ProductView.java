@@ -0,0 +1,50 @@
+package com.demo.product.dto;
+
+import com.demo.product.model.Product;
+
+/**
+ * Immutable, detached copy of a product as served by catalog reads. Loaded by
+ * a constructor projection (no managed entity) and safe to share between
+ * requests from the in-process catalog cache. Serializes like {@code Product}.
+ */
+public final class ProductView {
+
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final Double price;
+    private final Integer stock;
+
+    public ProductView(Long id, String name, String description, Double price, Integer stock) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.stock = stock;
+    }
+
+    public static ProductView of(Product product) {
+        return new ProductView(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getStock());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+}
@@ -0,0 +1,23 @@
+package com.demo.product.dto;
+
+/**
+ * A product matching a search, with its relevance score (higher is better)
+ */
+public final class SearchHit {
+
+    private final ProductView product;
+    private final double score;
+
+    public SearchHit(ProductView product, double score) {
+        this.product = product;
+        this.score = score;
+    }
+
+    public ProductView getProduct() {
+        return product;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
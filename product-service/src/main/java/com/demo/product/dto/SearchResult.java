@@ -0,0 +1,46 @@
+package com.demo.product.dto;
+
+import java.util.List;
+
+/**
+ * Response of GET /api/products/search: best hits first, plus how many
+ * products matched in total and how long the index lookup took. When the
+ * lookup stopped early because no further match could make the hits,
+ * totalExact is false and total counts only the matches it read.
+ */
+public final class SearchResult {
+
+    private final String query;
+    private final int total;
+    private final boolean totalExact;
+    private final List<SearchHit> hits;
+    private final long tookMicros;
+
+    public SearchResult(String query, int total, boolean totalExact, List<SearchHit> hits, long tookMicros) {
+        this.query = query;
+        this.total = total;
+        this.totalExact = totalExact;
+        this.hits = hits;
+        this.tookMicros = tookMicros;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    public List<SearchHit> getHits() {
+        return hits;
+    }
+
+    public long getTookMicros() {
+        return tookMicros;
+    }
+}
@@ -3,10 +3,14 @@ package com.demo.product.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "products")
+// Price-sorted listing pages are range reads of this index (see ProductRepository)
+@Table(name = "products", indexes = @Index(name = "idx_products_price_id", columnList = "price, id"))
 public class Product {
+    // Ids come from a sequence in blocks of allocationSize (pooled), so inserts need no round trip for the
+    // generated key and Hibernate can send them as JDBC batches; IDENTITY would force one insert per statement
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "products_seq", allocationSize = 1000)
     private Long id;
     
     private String name;
@@ -1,11 +1,58 @@
 package com.demo.product.repository;
 
+import com.demo.product.dto.ProductView;
 import com.demo.product.model.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-}
 
+    // Read-only projections for the catalog cache: plain objects, nothing attached to the persistence context
+
+    @Query("select new com.demo.product.dto.ProductView(p.id, p.name, p.description, p.price, p.stock) "
+            + "from Product p order by p.id")
+    List<ProductView> findAllViews();
+
+    @Query("select new com.demo.product.dto.ProductView(p.id, p.name, p.description, p.price, p.stock) "
+            + "from Product p where p.id = :id")
+    Optional<ProductView> findViewById(@Param("id") Long id);
+
+    // Keyset pages of the listing: rows after the last one of the previous page, in sort order, so every
+    // page costs the same however deep it is. The Pageable only carries the page size (page 0, unsorted).
+    // Price pages compare and order on the bare column, so they are a range read of the (price, id) index
+    // that stops after the page: the leading price bound starts the range, the rest only breaks ties by id.
+    // Products without a price are not in those ranges; they are paged by id on their own
+
+    @Query("select new com.demo.product.dto.ProductView(p.id, p.name, p.description, p.price, p.stock) "
+            + "from Product p where p.id > :afterId order by p.id asc")
+    List<ProductView> findPageByIdAsc(@Param("afterId") long afterId, Pageable page);
 
+    @Query("select new com.demo.product.dto.ProductView(p.id, p.name, p.description, p.price, p.stock) "
+            + "from Product p where p.id < :beforeId order by p.id desc")
+    List<ProductView> findPageByIdDesc(@Param("beforeId") long beforeId, Pageable page);
+
+    @Query("select new com.demo.product.dto.ProductView(p.id, p.name, p.description, p.price, p.stock) "
+            + "from Product p where p.price >= :price and (p.price > :price or p.id > :id) "
+            + "order by p.price asc, p.id asc")
+    List<ProductView> findPageByPriceAsc(@Param("price") double price, @Param("id") long id, Pageable page);
+
+    @Query("select new com.demo.product.dto.ProductView(p.id, p.name, p.description, p.price, p.stock) "
+            + "from Product p where p.price <= :price and (p.price < :price or p.id < :id) "
+            + "order by p.price desc, p.id desc")
+    List<ProductView> findPageByPriceDesc(@Param("price") double price, @Param("id") long id, Pageable page);
+
+    @Query("select new com.demo.product.dto.ProductView(p.id, p.name, p.description, p.price, p.stock) "
+            + "from Product p where p.price is null and p.id > :afterId order by p.id asc")
+    List<ProductView> findPageByMissingPriceAsc(@Param("afterId") long afterId, Pageable page);
+
+    @Query("select new com.demo.product.dto.ProductView(p.id, p.name, p.description, p.price, p.stock) "
+            + "from Product p where p.price is null and p.id < :beforeId order by p.id desc")
+    List<ProductView> findPageByMissingPriceDesc(@Param("beforeId") long beforeId, Pageable page);
+}
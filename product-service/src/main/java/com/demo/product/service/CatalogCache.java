@@ -0,0 +1,233 @@
+package com.demo.product.service;
+
+import com.demo.product.dto.ProductView;
+import com.demo.product.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of the product catalog, in memory. Every entry carries
+ * the {@link CatalogVersion} it was loaded at and is only served while that is
+ * still the current version, so a product write (which bumps the version)
+ * invalidates everything at once without touching the cache. The version is
+ * read before loading, so data loaded while a write is in flight is already
+ * stale when it lands and is simply loaded again.
+ *
+ * A hit is a volatile read or a map lookup of an immutable {@link ProductView}:
+ * no JPA session, no query and no entity hydration, whatever the table size.
+ * Misses load through constructor projections. The listing is loaded by one
+ * request at a time (the others wait for it rather than all querying); single
+ * products are bounded by catalog.cache.max-entries with sampled eviction that
+ * prefers stale entries. An entry can also hold its pre-encoded response body
+ * ({@link CatalogEncoder}), which goes away with it.
+ */
+@Component
+public class CatalogCache {
+
+    // Entries looked at per eviction
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final ProductRepository productRepository;
+    private final CatalogVersion catalogVersion;
+
+    @Value("${catalog.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${catalog.cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final Object listingLock = new Object();
+    private volatile Cached<List<ProductView>> listing;
+    // Empty optionals cache unknown ids too; a create bumps the version
+    private final Map<Long, Cached<Optional<ProductView>>> products = new ConcurrentHashMap<>();
+
+    private final Stats listingStats = new Stats();
+    private final Stats productStats = new Stats();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public CatalogCache(ProductRepository productRepository, CatalogVersion catalogVersion) {
+        this.productRepository = productRepository;
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * All products, ordered by id
+     */
+    public Cached<List<ProductView>> all() {
+        if (!enabled) {
+            return loadAll(catalogVersion.current());
+        }
+        Cached<List<ProductView>> cached = listing;
+        if (cached != null && cached.version == catalogVersion.current()) {
+            listingStats.hits.increment();
+            return cached;
+        }
+        synchronized (listingLock) {
+            long version = catalogVersion.current();
+            cached = listing;
+            if (cached != null && cached.version == version) {
+                // Loaded by the request we waited for
+                listingStats.hits.increment();
+                return cached;
+            }
+            cached = loadAll(version);
+            listing = cached;
+            // The listing has every product of this version: warm the single-product entries with it
+            for (ProductView product : cached.value) {
+                if (products.size() >= maxEntries) {
+                    break;
+                }
+                products.put(product.getId(), new Cached<>(version, Optional.of(product)));
+            }
+            return cached;
+        }
+    }
+
+    public Cached<Optional<ProductView>> byId(Long id) {
+        long version = catalogVersion.current();
+        if (!enabled) {
+            return loadOne(id, version);
+        }
+        Cached<Optional<ProductView>> cached = products.get(id);
+        if (cached != null && cached.version == version) {
+            productStats.hits.increment();
+            return cached;
+        }
+        cached = loadOne(id, version);
+        if (products.size() >= maxEntries && !products.containsKey(id)) {
+            evict(version);
+        }
+        products.put(id, cached);
+        return cached;
+    }
+
+    private Cached<List<ProductView>> loadAll(long version) {
+        listingStats.misses.increment();
+        long start = System.nanoTime();
+        List<ProductView> all = List.copyOf(productRepository.findAllViews());
+        listingStats.loaded(System.nanoTime() - start);
+        return new Cached<>(version, all);
+    }
+
+    private Cached<Optional<ProductView>> loadOne(Long id, long version) {
+        productStats.misses.increment();
+        long start = System.nanoTime();
+        Optional<ProductView> product = productRepository.findViewById(id);
+        productStats.loaded(System.nanoTime() - start);
+        return new Cached<>(version, product);
+    }
+
+    /**
+     * Drop the stale entries among a few, or the first of them if all are current
+     */
+    private void evict(long version) {
+        Iterator<Cached<Optional<ProductView>>> iterator = products.values().iterator();
+        boolean evicted = false;
+        for (int i = 0; i < EVICTION_SAMPLE && iterator.hasNext(); i++) {
+            if (iterator.next().version != version) {
+                iterator.remove();
+                evictions.increment();
+                evicted = true;
+            }
+        }
+        if (!evicted) {
+            iterator = products.values().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("catalogVersion", catalogVersion.current());
+        Cached<List<ProductView>> cached = listing;
+        result.put("listingVersion", cached != null ? cached.version : null);
+        result.put("productEntries", products.size());
+        result.put("maxEntries", maxEntries);
+        result.put("evictions", evictions.sum());
+        result.put("listing", listingStats.snapshot());
+        result.put("products", productStats.snapshot());
+        return result;
+    }
+
+    /**
+     * A cached value and the catalog version it was loaded at
+     */
+    public static final class Cached<T> {
+        private final long version;
+        private final T value;
+        private volatile CatalogEncoder.Encoded encoded;
+
+        Cached(long version, T value) {
+            this.version = version;
+            this.value = value;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         * The value's response body, encoded by the first caller and kept for the life of the entry
+         */
+        public CatalogEncoder.Encoded encoded(Function<T, CatalogEncoder.Encoded> encoder) {
+            CatalogEncoder.Encoded result = encoded;
+            if (result == null) {
+                // Concurrent first reads (of a large listing, say) wait for one encode instead of all encoding
+                synchronized (this) {
+                    result = encoded;
+                    if (result == null) {
+                        result = encoder.apply(value);
+                        encoded = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final class Stats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder loadNanos = new LongAdder();
+        private final LongAccumulator maxLoadNanos = new LongAccumulator(Math::max, 0);
+
+        void loaded(long nanos) {
+            loadNanos.add(nanos);
+            maxLoadNanos.accumulate(nanos);
+        }
+
+        Map<String, Object> snapshot() {
+            long hitCount = hits.sum();
+            long missCount = misses.sum();
+            long total = hitCount + missCount;
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("hits", hitCount);
+            stats.put("misses", missCount);
+            stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+            stats.put("avgLoadMs", missCount == 0 ? 0.0 : loadNanos.sum() / 1_000_000.0 / missCount);
+            stats.put("maxLoadMs", maxLoadNanos.get() / 1_000_000.0);
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.demo.product.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-encoded JSON bodies for catalog reads. A cached listing or product is
+ * serialized once, the first time it is served, and the UTF-8 bytes (plus a
+ * gzip copy from catalog.encoded.gzip-min-size up) are kept on its
+ * {@link CatalogCache.Cached} entry, so they live exactly as long as that
+ * catalog version. Reads then write the bytes as they are: no Jackson pass
+ * and no compression per request.
+ *
+ * Encoding uses the application's ObjectMapper, so the bytes are the same as
+ * the message converter would write for the same views. Can be switched off
+ * at runtime (POST /api/products/control/encoded) to measure the difference.
+ */
+@Component
+public class CatalogEncoder {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${catalog.encoded.enabled:true}")
+    private volatile boolean enabled;
+
+    @Value("${catalog.encoded.gzip-min-size:1024}")
+    private int gzipMinSize;
+
+    private final LongAdder encodes = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+    private final LongAccumulator maxEncodeNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder encodedBytes = new LongAdder();
+
+    @Autowired
+    public CatalogEncoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Encoded encode(Object value) {
+        long start = System.nanoTime();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        Encoded encoded = new Encoded(json, json.length >= gzipMinSize ? gzip(json) : null);
+        long elapsed = System.nanoTime() - start;
+        encodes.increment();
+        encodeNanos.add(elapsed);
+        maxEncodeNanos.accumulate(elapsed);
+        encodedBytes.add(json.length);
+        return encoded;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public Map<String, Object> snapshot() {
+        long count = encodes.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("gzipMinSize", gzipMinSize);
+        result.put("encodes", count);
+        result.put("encodedBytes", encodedBytes.sum());
+        result.put("avgEncodeMs", count == 0 ? 0.0 : encodeNanos.sum() / 1_000_000.0 / count);
+        result.put("maxEncodeMs", maxEncodeNanos.get() / 1_000_000.0);
+        return result;
+    }
+
+    /**
+     * A response body as UTF-8 JSON and, if large enough to be worth it, gzip
+     */
+    public static final class Encoded {
+        private final byte[] json;
+        private final byte[] gzip;
+
+        Encoded(byte[] json, byte[] gzip) {
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * Null below catalog.encoded.gzip-min-size
+         */
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.demo.product.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the product catalog, bumped on every product write. Used as a
+ * strong ETag for catalog reads so unchanged data is answered with 304.
+ * The startup time is part of the tag because the in-memory database is
+ * recreated on restart.
+ */
+@Component
+public class CatalogVersion {
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    public void increment() {
+        version.incrementAndGet();
+    }
+
+    public String etag() {
+        return etag(version.get());
+    }
+
+    /**
+     * ETag of a given catalog version, e.g. the one a cached read was loaded at
+     */
+    public String etag(long version) {
+        return "\"catalog-" + epoch + "-" + version + "\"";
+    }
+
+    /**
+     * ETag of the gzip representation of a given catalog version; it needs its own strong tag
+     */
+    public String gzipEtag(long version) {
+        return "\"catalog-" + epoch + "-" + version + "-gzip\"";
+    }
+}
@@ -0,0 +1,90 @@
+package com.demo.product.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tells the API gateway to drop cached catalog responses after product data changes.
+ * Calls are made in the background so product writes never wait on the gateway;
+ * the gateway's cache TTL is the safety net if a notification is lost.
+ */
+@Service
+public class GatewayCacheInvalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatewayCacheInvalidator.class);
+
+    private final RestTemplate restTemplate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gateway-cache-invalidator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${gateway.url:http://localhost:8080}")
+    private String gatewayUrl;
+
+    @Value("${gateway.cache-invalidation.enabled:true}")
+    private boolean enabled;
+
+    // The gateway only accepts invalidations carrying its token (or from its own host if it has none)
+    @Value("${gateway.cache-invalidation.token:}")
+    private String token;
+
+    public GatewayCacheInvalidator(RestTemplateBuilder restTemplateBuilder) {
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofSeconds(1))
+                .setReadTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+
+    /**
+     * A product was created: only the catalog listing is stale
+     */
+    public void productCreated() {
+        invalidate("/api/gateway/cache/product-list");
+    }
+
+    /**
+     * A product was updated or deleted: the listing and that product's entry are stale
+     */
+    public void productChanged(Long productId) {
+        invalidate("/api/gateway/cache/product-list");
+        invalidate("/api/gateway/cache/product-detail/" + productId);
+    }
+
+    private void invalidate(String path) {
+        if (!enabled) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                HttpHeaders headers = new HttpHeaders();
+                if (StringUtils.hasText(token)) {
+                    headers.set("X-Cache-Token", token);
+                }
+                restTemplate.exchange(gatewayUrl + path, HttpMethod.DELETE, new HttpEntity<>(headers), Void.class);
+                logger.debug("Gateway cache invalidated - path={}", path);
+            } catch (Exception e) {
+                logger.warn("Failed to invalidate gateway cache - path={}, error={}", path, e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
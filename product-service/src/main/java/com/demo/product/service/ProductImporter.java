@@ -0,0 +1,267 @@
+package com.demo.product.service;
+
+import com.demo.product.dto.ImportResult;
+import com.demo.product.dto.ProductView;
+import com.demo.product.model.Product;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bulk product import from a streamed request body: NDJSON (one product
+ * object per line) or CSV (a header row naming the name, description, price
+ * and stock columns, then one product per line; quoted fields may not span
+ * lines). Rows are parsed as they arrive and written in chunks of
+ * catalog.import.batch-size, each chunk one transaction sent as JDBC batches
+ * (ids come from the pooled product sequence, see {@link Product}). Only the
+ * current chunk is held in memory, whatever the size of the upload.
+ *
+ * Each committed chunk bumps the {@link CatalogVersion} and is added to the
+ * search index, so reads see the import progress. A bad row stops the import
+ * with its line number; the rows before it stay imported.
+ */
+@Component
+public class ProductImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImporter.class);
+
+    private static final int READ_BUFFER = 64 * 1024;
+
+    public enum Format { NDJSON, CSV }
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersion catalogVersion;
+    private final ProductSearchIndex productSearchIndex;
+    private final GatewayCacheInvalidator gatewayCacheInvalidator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${catalog.import.batch-size:1000}")
+    private int batchSize;
+
+    @Autowired
+    public ProductImporter(ObjectMapper objectMapper, TransactionTemplate transactionTemplate,
+                           CatalogVersion catalogVersion, ProductSearchIndex productSearchIndex,
+                           GatewayCacheInvalidator gatewayCacheInvalidator) {
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogVersion = catalogVersion;
+        this.productSearchIndex = productSearchIndex;
+        this.gatewayCacheInvalidator = gatewayCacheInvalidator;
+    }
+
+    /**
+     * @throws IllegalArgumentException for a malformed or invalid row, naming its line
+     */
+    public ImportResult importProducts(InputStream body, Format format) throws IOException {
+        Batch batch = new Batch();
+        try {
+            if (format == Format.CSV) {
+                readCsv(body, batch);
+            } else {
+                readNdjson(body, batch);
+            }
+            batch.flush();
+        } catch (IllegalArgumentException e) {
+            batch.flush();
+            throw new IllegalArgumentException(e.getMessage() + " (" + batch.imported
+                    + " products before it were imported)", e);
+        } finally {
+            if (batch.imported > 0) {
+                gatewayCacheInvalidator.productCreated();
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - batch.start;
+        double rowsPerSecond = elapsedNanos == 0 ? 0.0 : batch.imported * 1_000_000_000.0 / elapsedNanos;
+        logger.info("Product import finished - format={}, imported={}, batches={}, took={}ms, rowsPerSecond={}",
+                format, batch.imported, batch.batches, elapsedNanos / 1_000_000, Math.round(rowsPerSecond));
+        return new ImportResult(batch.imported, batch.batches, elapsedNanos / 1_000_000, rowsPerSecond);
+    }
+
+    private void readNdjson(InputStream body, Batch batch) throws IOException {
+        // Parses one value at a time from the stream; a top-level JSON array is read element by element too
+        try (MappingIterator<Product> rows = objectMapper.readerFor(Product.class).readValues(body)) {
+            while (rows.hasNextValue()) {
+                long line = rows.getParser().getTokenLocation().getLineNr();
+                Product product = rows.nextValue();
+                if (product != null) {
+                    batch.add(validate(product, line));
+                }
+            }
+        } catch (JsonProcessingException e) {
+            JsonLocation location = e.getLocation();
+            throw new IllegalArgumentException("line " + (location != null ? location.getLineNr() : "?") + ": "
+                    + e.getOriginalMessage());
+        }
+    }
+
+    private void readCsv(InputStream body, Batch batch) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), READ_BUFFER);
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        // Byte order mark, as spreadsheet exports often write
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        List<String> columns = new ArrayList<>();
+        splitCsv(header, 1, columns);
+        columns.replaceAll(column -> column.trim().toLowerCase(Locale.ROOT));
+        int name = columns.indexOf("name");
+        int description = columns.indexOf("description");
+        int price = columns.indexOf("price");
+        int stock = columns.indexOf("stock");
+        if (name < 0) {
+            throw new IllegalArgumentException("line 1: the CSV header needs a name column, got " + columns);
+        }
+
+        // Reused for every row
+        List<String> fields = new ArrayList<>(columns.size());
+        long lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            splitCsv(line, lineNumber, fields);
+            Product product = new Product(field(fields, name), field(fields, description),
+                    parseDouble(field(fields, price), "price", lineNumber),
+                    parseInteger(field(fields, stock), "stock", lineNumber));
+            batch.add(validate(product, lineNumber));
+        }
+    }
+
+    /**
+     * Fields of one CSV line: comma-separated, optionally in double quotes with "" for a quote
+     */
+    private static void splitCsv(String line, long lineNumber, List<String> fields) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("line " + lineNumber + ": unterminated quoted field");
+        }
+        fields.add(field.toString());
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column < 0 || column >= fields.size() || fields.get(column).isEmpty()) {
+            return null;
+        }
+        return fields.get(column);
+    }
+
+    private static Double parseDouble(String value, String column, long lineNumber) {
+        try {
+            return value != null ? Double.valueOf(value.trim()) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("line " + lineNumber + ": " + column + " is not a number: " + value);
+        }
+    }
+
+    private static Integer parseInteger(String value, String column, long lineNumber) {
+        try {
+            return value != null ? Integer.valueOf(value.trim()) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("line " + lineNumber + ": " + column + " is not an integer: " + value);
+        }
+    }
+
+    private static Product validate(Product product, long lineNumber) {
+        if (product.getName() == null || product.getName().isBlank()) {
+            throw new IllegalArgumentException("line " + lineNumber + ": name is required");
+        }
+        if (product.getPrice() != null && product.getPrice() < 0) {
+            throw new IllegalArgumentException("line " + lineNumber + ": price must not be negative");
+        }
+        if (product.getStock() != null && product.getStock() < 0) {
+            throw new IllegalArgumentException("line " + lineNumber + ": stock must not be negative");
+        }
+        // Ids are always generated; an id in the input would make persist treat the row as detached
+        product.setId(null);
+        return product;
+    }
+
+    /**
+     * Rows parsed but not yet written, and the totals so far
+     */
+    private final class Batch {
+        private final long start = System.nanoTime();
+        private final List<Product> pending = new ArrayList<>(batchSize);
+        private long imported;
+        private int batches;
+
+        void add(Product product) {
+            pending.add(product);
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            // The persistence context lives for this transaction only, so written rows are not kept in memory
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                for (Product product : pending) {
+                    entityManager.persist(product);
+                }
+            });
+            catalogVersion.increment();
+            List<ProductView> views = new ArrayList<>(pending.size());
+            for (Product product : pending) {
+                views.add(ProductView.of(product));
+            }
+            productSearchIndex.indexAll(views);
+            imported += pending.size();
+            batches++;
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.demo.product.service;
+
+import com.demo.product.dto.ProductPage;
+import com.demo.product.dto.ProductView;
+import com.demo.product.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Paged product listing with keyset (cursor) pagination. A page is fetched as
+ * "the next limit + 1 rows after the last row of the previous page" in the
+ * requested order (id or price, ascending or descending), so DB work and
+ * response size are bounded by the page size, not by the catalog or by how
+ * deep the client has paged. The extra row only tells whether there is a
+ * next page.
+ *
+ * Products without a price come before all others in price order and after
+ * them in -price order; they are read as a separate range, by id, so the
+ * priced rows stay an index range on (price, id).
+ *
+ * The cursor is opaque to clients: base64url of the sort and the sort key of
+ * the last row ({@code -price:399.99:4}, or {@code price::4} for a product
+ * without a price). It only contains URL-safe characters, so proxies pass it
+ * through unchanged. Rows are read as
+ * {@link ProductView} projections; {@code fields} picks which of their
+ * properties are written.
+ */
+@Component
+public class ProductListing {
+
+    // Writable fields, in output order
+    private static final Map<String, Function<ProductView, Object>> FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put("id", ProductView::getId);
+        FIELDS.put("name", ProductView::getName);
+        FIELDS.put("description", ProductView::getDescription);
+        FIELDS.put("price", ProductView::getPrice);
+        FIELDS.put("stock", ProductView::getStock);
+    }
+
+    private final ProductRepository productRepository;
+
+    @Value("${catalog.page.default-limit:20}")
+    private int defaultLimit;
+
+    @Value("${catalog.page.max-limit:100}")
+    private int maxLimit;
+
+    @Autowired
+    public ProductListing(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * One page of the listing. sort is id, price, -id or -price (descending); cursor is the
+     * nextCursor of the previous page with the same sort; fields a comma-separated list.
+     *
+     * @throws IllegalArgumentException for an unknown sort or field, a bad limit or a cursor
+     *                                  that is malformed or was issued for another sort
+     */
+    public ProductPage page(String sort, String cursor, Integer limit, String fields) {
+        Sort order = Sort.parse(sort);
+        int size = limit != null ? limit : defaultLimit;
+        if (size < 1 || size > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        }
+        Set<String> selected = parseFields(fields);
+
+        Key after = cursor != null && !cursor.isBlank() ? decode(cursor, order) : null;
+        int rows = size + 1;
+        List<ProductView> products;
+        switch (order) {
+            case ID_DESC:
+                products = productRepository.findPageByIdDesc(after != null ? after.id : Long.MAX_VALUE,
+                        PageRequest.of(0, rows));
+                break;
+            case PRICE_ASC:
+                products = priceAscending(after, rows);
+                break;
+            case PRICE_DESC:
+                products = priceDescending(after, rows);
+                break;
+            default:
+                products = productRepository.findPageByIdAsc(after != null ? after.id : Long.MIN_VALUE,
+                        PageRequest.of(0, rows));
+        }
+
+        String nextCursor = null;
+        if (products.size() > size) {
+            products = products.subList(0, size);
+            nextCursor = encode(order, products.get(size - 1));
+        }
+        List<Map<String, Object>> items = new ArrayList<>(products.size());
+        for (ProductView product : products) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            for (String field : selected) {
+                item.put(field, FIELDS.get(field).apply(product));
+            }
+            items.add(item);
+        }
+        return new ProductPage(items, order.label, size, nextCursor);
+    }
+
+    /**
+     * Products without a price first, then the priced ones; a page may span both ranges
+     */
+    private List<ProductView> priceAscending(Key after, int rows) {
+        if (after != null && after.price != null) {
+            return productRepository.findPageByPriceAsc(after.price, after.id, PageRequest.of(0, rows));
+        }
+        List<ProductView> products = new ArrayList<>(productRepository.findPageByMissingPriceAsc(
+                after != null ? after.id : Long.MIN_VALUE, PageRequest.of(0, rows)));
+        if (products.size() < rows) {
+            products.addAll(productRepository.findPageByPriceAsc(-Double.MAX_VALUE, Long.MIN_VALUE,
+                    PageRequest.of(0, rows - products.size())));
+        }
+        return products;
+    }
+
+    /**
+     * The reverse: priced products, then those without a price
+     */
+    private List<ProductView> priceDescending(Key after, int rows) {
+        if (after != null && after.price == null) {
+            return productRepository.findPageByMissingPriceDesc(after.id, PageRequest.of(0, rows));
+        }
+        List<ProductView> products = new ArrayList<>(after != null
+                ? productRepository.findPageByPriceDesc(after.price, after.id, PageRequest.of(0, rows))
+                : productRepository.findPageByPriceDesc(Double.MAX_VALUE, Long.MAX_VALUE, PageRequest.of(0, rows)));
+        if (products.size() < rows) {
+            products.addAll(productRepository.findPageByMissingPriceDesc(Long.MAX_VALUE,
+                    PageRequest.of(0, rows - products.size())));
+        }
+        return products;
+    }
+
+    private static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return FIELDS.keySet();
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!FIELDS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', expected any of " + FIELDS.keySet());
+            }
+            requested.add(name);
+        }
+        // Output in the canonical order whatever order they were asked in
+        Set<String> ordered = new LinkedHashSet<>(FIELDS.keySet());
+        ordered.retainAll(requested);
+        return ordered;
+    }
+
+    private static String encode(Sort order, ProductView last) {
+        // An empty price marks a product without one
+        String price = last.getPrice() != null ? last.getPrice().toString() : "";
+        String key = order.label + ":" + price + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Key decode(String cursor, Sort order) {
+        String sort;
+        Key key;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idSeparator = decoded.lastIndexOf(':');
+            int priceSeparator = decoded.lastIndexOf(':', idSeparator - 1);
+            if (priceSeparator < 0) {
+                throw new IllegalArgumentException();
+            }
+            sort = decoded.substring(0, priceSeparator);
+            String price = decoded.substring(priceSeparator + 1, idSeparator);
+            key = new Key(price.isEmpty() ? null : Double.valueOf(price),
+                    Long.parseLong(decoded.substring(idSeparator + 1)));
+        } catch (IllegalArgumentException e) {
+            // Bad base64 or numbers (NumberFormatException is an IllegalArgumentException)
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (!sort.equals(order.label)) {
+            throw new IllegalArgumentException("Cursor was issued for sort=" + sort + ", not sort=" + order.label);
+        }
+        return key;
+    }
+
+    private enum Sort {
+        ID_ASC("id"), ID_DESC("-id"), PRICE_ASC("price"), PRICE_DESC("-price");
+
+        private final String label;
+
+        Sort(String label) {
+            this.label = label;
+        }
+
+        static Sort parse(String sort) {
+            if (sort == null || sort.isBlank()) {
+                return ID_ASC;
+            }
+            for (Sort candidate : values()) {
+                if (candidate.label.equals(sort.trim())) {
+                    return candidate;
+                }
+            }
+            throw new IllegalArgumentException("Unknown sort '" + sort + "', expected id, -id, price or -price");
+        }
+    }
+
+    // Sort key of the last row of a page; price is null for a product without one
+    private static final class Key {
+        private final Double price;
+        private final long id;
+
+        Key(Double price, long id) {
+            this.price = price;
+            this.id = id;
+        }
+    }
+}
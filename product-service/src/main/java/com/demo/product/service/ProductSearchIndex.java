@@ -0,0 +1,545 @@
+package com.demo.product.service;
+
+import com.demo.product.dto.ProductView;
+import com.demo.product.dto.SearchHit;
+import com.demo.product.dto.SearchResult;
+import com.demo.product.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product name and description, for
+ * GET /api/products/search. Built from the database once the application is
+ * ready (in keyset batches) and then kept current by the write endpoints, so
+ * searches never touch the database.
+ *
+ * Terms live in a sorted dictionary (term -> product -> weight; a name
+ * occurrence weighs more than a description one), which gives exact lookups
+ * and prefix ranges for autocomplete. Typos are matched through a second map
+ * from every one-character deletion of a term to the term (the SymSpell
+ * approach), so a misspelled query word finds its candidates with a few hash
+ * lookups instead of a dictionary scan; candidates are confirmed by edit
+ * distance. Every query word must match (exactly, as a prefix or with one
+ * typo). Candidates are taken from the rarest word and only filtered by the
+ * others, and scored by weight, match quality and inverse document frequency.
+ *
+ * Each term's postings are also kept grouped by weight, heaviest first, so a
+ * query reads the rarest word's candidates in descending order of their
+ * score for that word. It stops once the limit is filled and no unread
+ * candidate could still beat the weakest hit, even with the best possible
+ * score for every other word: a common word or a short prefix reads the top
+ * of its postings, not all of them. The reported total is then a lower bound.
+ *
+ * Reads are lock-free; writes are serialized. A search running while a
+ * product is re-indexed may miss that one product.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Match quality per kind of match; prefix matches score higher the more of the term they cover
+    private static final double EXACT = 1.0;
+    private static final double PREFIX_MIN = 0.5;
+    private static final double PREFIX_MAX = 0.8;
+    private static final double TYPO = 0.6;
+
+    // Shortest query word completed as a prefix / matched with a typo
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_TYPO_LENGTH = 4;
+
+    private static final int BUILD_BATCH = 1000;
+
+    private final ProductRepository productRepository;
+
+    @Value("${catalog.search.max-prefix-expansions:50}")
+    private int maxPrefixExpansions;
+
+    @Value("${catalog.search.max-limit:50}")
+    private int maxLimit;
+
+    private final ConcurrentSkipListMap<String, Postings> terms = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> deletions = new ConcurrentHashMap<>();
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+    private final LongAccumulator maxQueryNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder earlyTerminations = new LongAdder();
+    private volatile long buildMillis = -1;
+
+    @Autowired
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Index the whole catalog after startup (and after the sample data is seeded)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.currentTimeMillis();
+        synchronized (writeLock) {
+            long afterId = Long.MIN_VALUE;
+            List<ProductView> batch;
+            do {
+                batch = productRepository.findPageByIdAsc(afterId, PageRequest.of(0, BUILD_BATCH));
+                for (ProductView product : batch) {
+                    add(product);
+                    afterId = product.getId();
+                }
+            } while (batch.size() == BUILD_BATCH);
+        }
+        buildMillis = System.currentTimeMillis() - start;
+        logger.info("Product search index built - products={}, terms={}, took={}ms",
+                documents.size(), terms.size(), buildMillis);
+    }
+
+    /**
+     * Add or replace a product after it was created or updated
+     */
+    public void index(ProductView product) {
+        synchronized (writeLock) {
+            remove(product.getId());
+            add(product);
+        }
+    }
+
+    /**
+     * Add a batch of newly created products (a bulk import chunk) under one lock
+     */
+    public void indexAll(List<ProductView> products) {
+        synchronized (writeLock) {
+            for (ProductView product : products) {
+                add(product);
+            }
+        }
+    }
+
+    /**
+     * Drop a deleted product
+     */
+    public void delete(Long productId) {
+        synchronized (writeLock) {
+            remove(productId);
+        }
+    }
+
+    private void add(ProductView product) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : tokenize(product.getName())) {
+            weights.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(product.getDescription())) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        weights.forEach((term, weight) -> {
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                postings = new Postings();
+                terms.put(term, postings);
+                for (String deletion : deletionsOf(term)) {
+                    deletions.computeIfAbsent(deletion, d -> ConcurrentHashMap.newKeySet()).add(term);
+                }
+            }
+            postings.put(product.getId(), weight);
+        });
+        documents.put(product.getId(), new Document(product, weights.keySet()));
+    }
+
+    private void remove(Long productId) {
+        Document document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                continue;
+            }
+            postings.remove(productId);
+            if (postings.isEmpty()) {
+                terms.remove(term);
+                for (String deletion : deletionsOf(term)) {
+                    Set<String> variants = deletions.get(deletion);
+                    if (variants != null) {
+                        variants.remove(term);
+                        if (variants.isEmpty()) {
+                            deletions.remove(deletion);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Products matching every word of the query, best first
+     */
+    public SearchResult search(String query, int limit) {
+        long start = System.nanoTime();
+        int size = Math.max(1, Math.min(limit, maxLimit));
+        Ranking ranking = new Ranking(size);
+
+        List<Map<String, Double>> words = new ArrayList<>();
+        for (String word : tokenize(query)) {
+            words.add(expand(word));
+        }
+        if (!words.isEmpty() && words.stream().noneMatch(Map::isEmpty)) {
+            // Rarest word first: it bounds the candidates the other words only have to filter
+            words.sort(Comparator.comparingLong(this::postingsCount));
+            rank(words, ranking);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        queries.increment();
+        queryNanos.add(elapsed);
+        maxQueryNanos.accumulate(elapsed);
+        if (!ranking.complete) {
+            earlyTerminations.increment();
+        }
+        return new SearchResult(query, ranking.matched, ranking.complete, ranking.hits(), elapsed / 1000);
+    }
+
+    /**
+     * Index terms a query word can stand for, with their match quality
+     */
+    private Map<String, Double> expand(String word) {
+        Map<String, Double> matches = new HashMap<>();
+        if (terms.containsKey(word)) {
+            matches.put(word, EXACT);
+        }
+        if (word.length() >= MIN_PREFIX_LENGTH) {
+            NavigableMap<String, Postings> completions =
+                    terms.subMap(word, false, word + Character.MAX_VALUE, false);
+            Iterator<String> iterator = completions.keySet().iterator();
+            for (int i = 0; i < maxPrefixExpansions && iterator.hasNext(); i++) {
+                String term = iterator.next();
+                double coverage = (double) word.length() / term.length();
+                matches.putIfAbsent(term, PREFIX_MIN + (PREFIX_MAX - PREFIX_MIN) * coverage);
+            }
+        }
+        if (matches.isEmpty() && word.length() >= MIN_TYPO_LENGTH) {
+            // Same term after removing a character from the word, from the term, or from both
+            Set<String> candidates = new HashSet<>();
+            Set<String> wordDeletions = deletionsOf(word);
+            for (String deletion : wordDeletions) {
+                if (terms.containsKey(deletion)) {
+                    candidates.add(deletion);
+                }
+            }
+            wordDeletions.add(word);
+            for (String deletion : wordDeletions) {
+                Set<String> variants = deletions.get(deletion);
+                if (variants != null) {
+                    candidates.addAll(variants);
+                }
+            }
+            for (String candidate : candidates) {
+                if (withinOneEdit(word, candidate)) {
+                    matches.put(candidate, TYPO);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private long postingsCount(Map<String, Double> word) {
+        long count = 0;
+        for (String term : word.keySet()) {
+            Postings postings = terms.get(term);
+            count += postings != null ? postings.size() : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Score the products matching every word into the ranking, reading the first
+     * (rarest) word's postings best first and stopping once they can no longer
+     * place a hit
+     */
+    private void rank(List<Map<String, Double>> words, Ranking ranking) {
+        // The first word's postings as runs of equal score for that word, best run first
+        List<Run> runs = new ArrayList<>();
+        words.get(0).forEach((term, quality) -> {
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                return;
+            }
+            double factor = quality * idf(postings.size());
+            postings.byWeight.forEach((weight, productIds) -> runs.add(new Run(weight * factor, productIds)));
+        });
+        runs.sort(Comparator.comparingDouble((Run run) -> run.score).reversed());
+
+        // The other words only filter; each adds at most its best term's factor times its heaviest weight
+        List<List<Map<Long, Integer>>> filters = new ArrayList<>(words.size() - 1);
+        List<List<Double>> factors = new ArrayList<>(words.size() - 1);
+        double otherWordsMax = 0;
+        for (int i = 1; i < words.size(); i++) {
+            List<Map<Long, Integer>> postingsList = new ArrayList<>();
+            List<Double> wordFactors = new ArrayList<>();
+            double wordMax = 0;
+            for (Map.Entry<String, Double> match : words.get(i).entrySet()) {
+                Postings postings = terms.get(match.getKey());
+                if (postings != null) {
+                    double factor = match.getValue() * idf(postings.size());
+                    postingsList.add(postings.weights);
+                    wordFactors.add(factor);
+                    wordMax = Math.max(wordMax, factor * postings.maxWeight());
+                }
+            }
+            filters.add(postingsList);
+            factors.add(wordFactors);
+            otherWordsMax += wordMax;
+        }
+
+        // A product can be in several runs (prefix completions of one word); its first, best, run counts
+        Set<Long> seen = new HashSet<>();
+        for (Run run : runs) {
+            if (ranking.isFull() && run.score + otherWordsMax < ranking.weakest()) {
+                ranking.complete = false;
+                return;
+            }
+            for (Long productId : run.productIds) {
+                if (!seen.add(productId)) {
+                    continue;
+                }
+                double score = run.score;
+                for (int i = 0; i < filters.size() && score > 0; i++) {
+                    double best = 0;
+                    List<Map<Long, Integer>> postingsList = filters.get(i);
+                    for (int j = 0; j < postingsList.size(); j++) {
+                        Integer weight = postingsList.get(j).get(productId);
+                        if (weight != null) {
+                            best = Math.max(best, weight * factors.get(i).get(j));
+                        }
+                    }
+                    score = best == 0 ? 0 : score + best;
+                }
+                if (score == 0) {
+                    continue;
+                }
+                ranking.matched++;
+                // With one word every product of the run scores the same, and ids ascend: the rest would lose the tie
+                if (!ranking.offer(productId, score) && filters.isEmpty()) {
+                    ranking.complete = false;
+                    break;
+                }
+            }
+        }
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1.0 + (double) Math.max(1, documents.size()) / documentFrequency);
+    }
+
+    public Map<String, Object> snapshot() {
+        long count = queries.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("products", documents.size());
+        stats.put("terms", terms.size());
+        stats.put("typoVariants", deletions.size());
+        stats.put("buildMs", buildMillis);
+        stats.put("queries", count);
+        stats.put("avgQueryMicros", count == 0 ? 0.0 : queryNanos.sum() / 1000.0 / count);
+        stats.put("maxQueryMicros", maxQueryNanos.get() / 1000.0);
+        stats.put("earlyTerminations", earlyTerminations.sum());
+        return stats;
+    }
+
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> deletionsOf(String term) {
+        Set<String> result = new HashSet<>();
+        if (term.length() < MIN_TYPO_LENGTH) {
+            return result;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            result.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return result;
+    }
+
+    /**
+     * Whether two different strings are one insertion, deletion, substitution or adjacent swap apart
+     */
+    private static boolean withinOneEdit(String a, String b) {
+        int lengthDifference = a.length() - b.length();
+        if (Math.abs(lengthDifference) > 1) {
+            return false;
+        }
+        int prefix = 0;
+        int shorter = Math.min(a.length(), b.length());
+        while (prefix < shorter && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        if (lengthDifference > 0) {
+            return a.regionMatches(prefix + 1, b, prefix, b.length() - prefix);
+        }
+        if (lengthDifference < 0) {
+            return b.regionMatches(prefix + 1, a, prefix, a.length() - prefix);
+        }
+        if (prefix == a.length()) {
+            return true;
+        }
+        // Substitution at prefix, or a swap of prefix and prefix + 1
+        return a.regionMatches(prefix + 1, b, prefix + 1, a.length() - prefix - 1)
+                || (prefix + 1 < a.length()
+                && a.charAt(prefix) == b.charAt(prefix + 1) && a.charAt(prefix + 1) == b.charAt(prefix)
+                && a.regionMatches(prefix + 2, b, prefix + 2, a.length() - prefix - 2));
+    }
+
+    /**
+     * Postings of one term: product -> weight for lookups, and the same products
+     * grouped by weight (heaviest first, ids ascending) for reading best first
+     */
+    private static final class Postings {
+        private final Map<Long, Integer> weights = new ConcurrentHashMap<>();
+        private final NavigableMap<Integer, Set<Long>> byWeight = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+
+        void put(Long productId, int weight) {
+            weights.put(productId, weight);
+            byWeight.computeIfAbsent(weight, w -> new ConcurrentSkipListSet<>()).add(productId);
+        }
+
+        void remove(Long productId) {
+            Integer weight = weights.remove(productId);
+            if (weight == null) {
+                return;
+            }
+            Set<Long> productIds = byWeight.get(weight);
+            if (productIds != null) {
+                productIds.remove(productId);
+                if (productIds.isEmpty()) {
+                    byWeight.remove(weight);
+                }
+            }
+        }
+
+        int size() {
+            return weights.size();
+        }
+
+        boolean isEmpty() {
+            return weights.isEmpty();
+        }
+
+        int maxWeight() {
+            Map.Entry<Integer, Set<Long>> heaviest = byWeight.firstEntry();
+            return heaviest != null ? heaviest.getKey() : 0;
+        }
+    }
+
+    /**
+     * Products of one term that score the same for the query word
+     */
+    private static final class Run {
+        private final double score;
+        private final Set<Long> productIds;
+
+        Run(double score, Set<Long> productIds) {
+            this.score = score;
+            this.productIds = productIds;
+        }
+    }
+
+    /**
+     * The best hits so far in a min-heap (ties go to the lower id), and how many products matched
+     */
+    private final class Ranking {
+        private final int size;
+        private final PriorityQueue<Map.Entry<Long, Double>> best;
+        private int matched;
+        private boolean complete = true;
+
+        Ranking(int size) {
+            this.size = size;
+            this.best = new PriorityQueue<>(size + 1, Map.Entry.<Long, Double>comparingByValue()
+                    .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed()));
+        }
+
+        boolean isFull() {
+            return best.size() >= size;
+        }
+
+        double weakest() {
+            return best.peek().getValue();
+        }
+
+        /**
+         * @return false if the product did not make the top hits
+         */
+        boolean offer(Long productId, double score) {
+            Map.Entry<Long, Double> entry = Map.entry(productId, score);
+            best.offer(entry);
+            return best.size() <= size || best.poll() != entry;
+        }
+
+        List<SearchHit> hits() {
+            List<SearchHit> hits = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                Map.Entry<Long, Double> entry = best.poll();
+                Document document = documents.get(entry.getKey());
+                if (document != null) {
+                    hits.add(new SearchHit(document.product, Math.round(entry.getValue() * 1000) / 1000.0));
+                }
+            }
+            Collections.reverse(hits);
+            return hits;
+        }
+    }
+
+    private static final class Document {
+        private final ProductView product;
+        private final Set<String> terms;
+
+        Document(ProductView product, Set<String> terms) {
+            this.product = product;
+            this.terms = terms;
+        }
+    }
+}
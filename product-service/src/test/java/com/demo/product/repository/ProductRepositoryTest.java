@@ -0,0 +1,77 @@
+package com.demo.product.repository;
+
+import com.demo.product.dto.ProductPage;
+import com.demo.product.model.Product;
+import com.demo.product.service.ProductListing;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ProductRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private ProductListing listing;
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        listing = new ProductListing(productRepository);
+        ReflectionTestUtils.setField(listing, "defaultLimit", 20);
+        ReflectionTestUtils.setField(listing, "maxLimit", 100);
+
+        for (Double price : new Double[]{5.0, null, 1.0, 5.0, null, 0.0, 3.5, 5.0}) {
+            ids.add(productRepository.save(new Product("Product", null, price, 1)).getId());
+        }
+    }
+
+    @Test
+    void pricePagesWalkTheCatalogInOrder() {
+        // Without a price first (by id), then by price with ties by id
+        assertThat(walk("price", 3)).containsExactly(
+                ids.get(1), ids.get(4), ids.get(5), ids.get(2), ids.get(6), ids.get(0), ids.get(3), ids.get(7));
+        assertThat(walk("-price", 3)).containsExactly(
+                ids.get(7), ids.get(3), ids.get(0), ids.get(6), ids.get(2), ids.get(5), ids.get(4), ids.get(1));
+    }
+
+    @Test
+    void everyPageSizeGivesTheSameOrder() {
+        List<Long> expected = walk("price", 100);
+        for (int limit = 1; limit <= 8; limit++) {
+            assertThat(walk("price", limit)).as("limit %d", limit).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void pricePageIsAnIndexRange() {
+        String plan = (String) entityManager.createNativeQuery("explain select id from products "
+                        + "where price >= 1.0 and (price > 1.0 or id > 3) order by price, id limit 3")
+                .getSingleResult();
+
+        assertThat(plan).containsIgnoringCase("IDX_PRODUCTS_PRICE_ID");
+    }
+
+    private List<Long> walk(String sort, int limit) {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductPage page = listing.page(sort, cursor, limit, "id");
+            page.getItems().forEach(item -> seen.add((Long) item.get("id")));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return seen;
+    }
+}
@@ -0,0 +1,183 @@
+package com.demo.product.service;
+
+import com.demo.product.dto.ImportResult;
+import com.demo.product.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductImporterTest {
+
+    private final List<Product> persisted = new ArrayList<>();
+    private CatalogVersion catalogVersion;
+    private ProductSearchIndex productSearchIndex;
+    private GatewayCacheInvalidator gatewayCacheInvalidator;
+    private ProductImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        catalogVersion = mock(CatalogVersion.class);
+        productSearchIndex = mock(ProductSearchIndex.class);
+        gatewayCacheInvalidator = mock(GatewayCacheInvalidator.class);
+        importer = new ProductImporter(new ObjectMapper(), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                catalogVersion, productSearchIndex, gatewayCacheInvalidator);
+
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(mock(Session.class));
+        doAnswer(invocation -> persisted.add(invocation.getArgument(0))).when(entityManager).persist(any());
+        ReflectionTestUtils.setField(importer, "entityManager", entityManager);
+        ReflectionTestUtils.setField(importer, "batchSize", 2);
+    }
+
+    @Test
+    void csvReadsQuotedFieldsAndEscapedQuotes() throws IOException {
+        importCsv("name,description,price,stock\n"
+                + "\"Desk, oak\",\"Rated \"\"sturdy\"\"\",199.5,3\n");
+
+        Product desk = persisted.get(0);
+        assertThat(desk.getName()).isEqualTo("Desk, oak");
+        assertThat(desk.getDescription()).isEqualTo("Rated \"sturdy\"");
+        assertThat(desk.getPrice()).isEqualTo(199.5);
+        assertThat(desk.getStock()).isEqualTo(3);
+    }
+
+    @Test
+    void csvColumnsAreMatchedByHeaderName() throws IOException {
+        // Byte order mark, other order and case, padding, no description column
+        importCsv("\uFEFFStock, PRICE ,Name\n"
+                + "7, 12.0 ,Lamp\n");
+
+        Product lamp = persisted.get(0);
+        assertThat(lamp.getName()).isEqualTo("Lamp");
+        assertThat(lamp.getDescription()).isNull();
+        assertThat(lamp.getPrice()).isEqualTo(12.0);
+        assertThat(lamp.getStock()).isEqualTo(7);
+    }
+
+    @Test
+    void csvEmptyFieldsAreNullAndBlankLinesSkipped() throws IOException {
+        ImportResult result = importCsv("name,description,price,stock\n"
+                + "Chair,,,\n"
+                + "\n"
+                + "Stool,\"\",5\n");
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(persisted.get(0).getDescription()).isNull();
+        assertThat(persisted.get(0).getPrice()).isNull();
+        assertThat(persisted.get(1).getDescription()).isNull();
+        assertThat(persisted.get(1).getStock()).isNull();
+    }
+
+    @Test
+    void csvErrorNamesTheLineAndKeepsTheRowsBeforeIt() {
+        assertThatThrownBy(() -> importCsv("name,price\n"
+                + "Chair,10\n"
+                + "Table,cheap\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("line 3: price is not a number: cheap (1 products before it were imported)");
+
+        assertThat(persisted).extracting(Product::getName).containsExactly("Chair");
+        verify(gatewayCacheInvalidator).productCreated();
+    }
+
+    @Test
+    void csvRejectsUnterminatedQuote() {
+        assertThatThrownBy(() -> importCsv("name,description\n"
+                + "Chair,\"comfy\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("line 2: unterminated quoted field");
+    }
+
+    @Test
+    void csvRequiresANameColumn() {
+        assertThatThrownBy(() -> importCsv("title,price\nChair,10\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("line 1: the CSV header needs a name column");
+    }
+
+    @Test
+    void csvRejectsInvalidValues() {
+        assertThatThrownBy(() -> importCsv("name,stock\nChair,1.5\n"))
+                .hasMessageStartingWith("line 2: stock is not an integer: 1.5");
+        assertThatThrownBy(() -> importCsv("name,price\n   ,10\n"))
+                .hasMessageStartingWith("line 2: name is required");
+        assertThatThrownBy(() -> importCsv("name,price\nChair,-1\n"))
+                .hasMessageStartingWith("line 2: price must not be negative");
+    }
+
+    @Test
+    void ndjsonReadsOneProductPerLineAndIgnoresIds() throws IOException {
+        ImportResult result = importNdjson("{\"id\":42,\"name\":\"Lamp\",\"price\":12.0,\"stock\":7}\n"
+                + "{\"name\":\"Rug\",\"description\":\"Wool\"}\n");
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(persisted).extracting(Product::getName).containsExactly("Lamp", "Rug");
+        assertThat(persisted.get(0).getId()).isNull();
+        assertThat(persisted.get(1).getDescription()).isEqualTo("Wool");
+    }
+
+    @Test
+    void ndjsonErrorNamesTheLine() {
+        assertThatThrownBy(() -> importNdjson("{\"name\":\"Lamp\"}\n"
+                + "{\"name\":\"Rug\",\"stock\":-2}\n"))
+                .hasMessageStartingWith("line 2: stock must not be negative");
+        assertThatThrownBy(() -> importNdjson("{\"name\":\"Lamp\"}\n"
+                + "{\"name\":\"Rug\",\n"
+                + "\"price\":}\n"))
+                .hasMessageStartingWith("line 3: ");
+    }
+
+    @Test
+    void writesInBatchesAndPublishesEachOne() throws IOException {
+        ImportResult result = importCsv("name\nA\nB\nC\nD\nE\n");
+
+        assertThat(result.getImported()).isEqualTo(5);
+        assertThat(result.getBatches()).isEqualTo(3);
+        verify(catalogVersion, times(3)).increment();
+        verify(productSearchIndex, times(3)).indexAll(anyList());
+        verify(gatewayCacheInvalidator).productCreated();
+    }
+
+    @Test
+    void emptyUploadImportsNothing() throws IOException {
+        ImportResult result = importCsv("");
+
+        assertThat(result.getImported()).isZero();
+        verify(catalogVersion, never()).increment();
+        verify(gatewayCacheInvalidator, never()).productCreated();
+    }
+
+    private ImportResult importCsv(String body) throws IOException {
+        return importer.importProducts(stream(body), ProductImporter.Format.CSV);
+    }
+
+    private ImportResult importNdjson(String body) throws IOException {
+        return importer.importProducts(stream(body), ProductImporter.Format.NDJSON);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
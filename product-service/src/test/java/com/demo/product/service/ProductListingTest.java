@@ -0,0 +1,166 @@
+package com.demo.product.service;
+
+import com.demo.product.dto.ProductPage;
+import com.demo.product.dto.ProductView;
+import com.demo.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductListingTest {
+
+    private ProductRepository productRepository;
+    private ProductListing listing;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        listing = new ProductListing(productRepository);
+        ReflectionTestUtils.setField(listing, "defaultLimit", 20);
+        ReflectionTestUtils.setField(listing, "maxLimit", 100);
+    }
+
+    @Test
+    void cursorCarriesTheLastRowKeyIntoTheNextQuery() {
+        when(productRepository.findPageByPriceDesc(anyDouble(), anyLong(), any())).thenReturn(List.of(
+                product(9, 499.0), product(4, 399.99), product(7, 399.99)));
+
+        ProductPage first = listing.page("-price", null, 2, null);
+        assertThat(decoded(first.getNextCursor())).isEqualTo("-price:399.99:4");
+        verify(productRepository).findPageByPriceDesc(Double.MAX_VALUE, Long.MAX_VALUE, PageRequest.of(0, 3));
+
+        listing.page("-price", first.getNextCursor(), 2, null);
+        verify(productRepository).findPageByPriceDesc(399.99, 4L, PageRequest.of(0, 3));
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        // Plain base64 of this key ends in '=' padding
+        when(productRepository.findPageByPriceAsc(anyDouble(), anyLong(), any())).thenReturn(List.of(
+                product(1, 1.0), product(3, 1.0)));
+
+        String cursor = listing.page("price", null, 1, null).getNextCursor();
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+        assertThat(decoded(cursor)).isEqualTo("price:1.0:1");
+    }
+
+    @Test
+    void productsWithoutPriceArePagedByIdBeforeThePricedOnes() {
+        when(productRepository.findPageByMissingPriceAsc(anyLong(), any())).thenReturn(List.of(
+                product(5, null), product(6, null)));
+
+        String cursor = listing.page("price", null, 1, null).getNextCursor();
+        assertThat(decoded(cursor)).isEqualTo("price::5");
+
+        // The last product without a price: the page continues into the priced range from its start
+        when(productRepository.findPageByMissingPriceAsc(anyLong(), any())).thenReturn(List.of(product(6, null)));
+        when(productRepository.findPageByPriceAsc(anyDouble(), anyLong(), any())).thenReturn(List.of(product(2, 1.0)));
+        ProductPage next = listing.page("price", cursor, 1, null);
+
+        verify(productRepository).findPageByMissingPriceAsc(5L, PageRequest.of(0, 2));
+        verify(productRepository).findPageByPriceAsc(-Double.MAX_VALUE, Long.MIN_VALUE, PageRequest.of(0, 1));
+        assertThat(decoded(next.getNextCursor())).isEqualTo("price::6");
+    }
+
+    @Test
+    void productsWithoutPriceComeAfterThePricedOnesDescending() {
+        when(productRepository.findPageByPriceDesc(anyDouble(), anyLong(), any())).thenReturn(List.of(product(2, 1.0)));
+        when(productRepository.findPageByMissingPriceDesc(anyLong(), any())).thenReturn(List.of(
+                product(6, null), product(5, null)));
+
+        ProductPage page = listing.page("-price", null, 2, null);
+
+        verify(productRepository).findPageByMissingPriceDesc(Long.MAX_VALUE, PageRequest.of(0, 2));
+        assertThat(page.getItems()).extracting(item -> item.get("id")).containsExactly(2L, 6L);
+        assertThat(decoded(page.getNextCursor())).isEqualTo("-price::6");
+
+        listing.page("-price", page.getNextCursor(), 2, null);
+        verify(productRepository).findPageByMissingPriceDesc(6L, PageRequest.of(0, 3));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(productRepository.findPageByIdAsc(anyLong(), any())).thenReturn(List.of(product(1, 1.0), product(2, 2.0)));
+
+        ProductPage page = listing.page(null, null, 2, null);
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.getNextCursor()).isNull();
+        verify(productRepository).findPageByIdAsc(Long.MIN_VALUE, PageRequest.of(0, 3));
+    }
+
+    @Test
+    void idCursorResumesAfterTheLastId() {
+        when(productRepository.findPageByIdDesc(anyLong(), any())).thenReturn(List.of(product(9, 1.0), product(8, 1.0)));
+        String cursor = listing.page("-id", null, 1, null).getNextCursor();
+
+        listing.page("-id", cursor, 1, null);
+
+        verify(productRepository).findPageByIdDesc(9L, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void rejectsCursorIssuedForAnotherSort() {
+        String cursor = encoded("price:10.0:3");
+
+        assertThatThrownBy(() -> listing.page("-price", cursor, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor was issued for sort=price, not sort=-price");
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        for (String cursor : List.of("not base64!", encoded("garbage"), encoded("id:ten:3"), encoded("id:10.0:"),
+                encoded(":3"))) {
+            assertThatThrownBy(() -> listing.page("id", cursor, null, null)).as(cursor)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Malformed cursor");
+        }
+    }
+
+    @Test
+    void writesRequestedFieldsInCanonicalOrder() {
+        when(productRepository.findPageByIdAsc(anyLong(), any())).thenReturn(List.of(product(1, 2.5)));
+
+        ProductPage page = listing.page(null, null, null, "price, id");
+
+        assertThat(page.getItems().get(0)).containsExactly(entry("id", 1L), entry("price", 2.5));
+        assertThat(page.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void rejectsBadSortLimitAndField() {
+        assertThatThrownBy(() -> listing.page("name", null, null, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> listing.page(null, null, 0, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> listing.page(null, null, 101, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> listing.page(null, null, null, "id,secret")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ProductView product(long id, Double price) {
+        return new ProductView(id, "Product " + id, null, price, 1);
+    }
+
+    private static String decoded(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+
+    private static String encoded(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,136 @@
+package com.demo.product.service;
+
+import com.demo.product.dto.ProductView;
+import com.demo.product.dto.SearchHit;
+import com.demo.product.dto.SearchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(null);
+        ReflectionTestUtils.setField(index, "maxPrefixExpansions", 50);
+        ReflectionTestUtils.setField(index, "maxLimit", 50);
+
+        index.indexAll(List.of(
+                product(1, "Wireless Mouse", "Ergonomic mouse with USB receiver"),
+                product(2, "Mechanical Keyboard", "Wired keyboard with brown switches"),
+                product(3, "Mouse Pad", "Large pad for any mouse"),
+                product(4, "USB Cable", "Braided cable, two meters")));
+    }
+
+    @Test
+    void nameMatchRanksAboveDescriptionMatch() {
+        assertThat(ids(index.search("mouse", 10))).containsExactly(1L, 3L);
+        assertThat(ids(index.search("usb", 10))).containsExactly(4L, 1L);
+    }
+
+    @Test
+    void completesPrefix() {
+        assertThat(ids(index.search("wirel", 10))).containsExactly(1L);
+        // "wire" completes to both wireless and wired
+        assertThat(ids(index.search("wire", 10))).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void matchesOneTypo() {
+        assertThat(ids(index.search("mosue", 10))).as("adjacent swap").containsExactly(1L, 3L);
+        assertThat(ids(index.search("keybord", 10))).as("missing character").containsExactly(2L);
+        assertThat(ids(index.search("keyyboard", 10))).as("extra character").containsExactly(2L);
+        assertThat(ids(index.search("kejboard", 10))).as("substitution").containsExactly(2L);
+    }
+
+    @Test
+    void doesNotMatchTwoTyposOrShortWords() {
+        assertThat(index.search("kejbord", 10).getHits()).isEmpty();
+        // Below the typo length "pda" would have to be a prefix
+        assertThat(index.search("pda", 10).getHits()).isEmpty();
+    }
+
+    @Test
+    void everyWordMustMatch() {
+        assertThat(ids(index.search("usb mouse", 10))).containsExactly(1L);
+        assertThat(index.search("wireless keyboard", 10).getHits()).isEmpty();
+        assertThat(index.search("mouse banana", 10).getTotal()).isZero();
+    }
+
+    @Test
+    void updateAndDeleteKeepTheIndexCurrent() {
+        index.index(product(3, "Desk Mat", "Large felt mat"));
+        assertThat(ids(index.search("mouse", 10))).containsExactly(1L);
+        assertThat(ids(index.search("felt", 10))).containsExactly(3L);
+
+        index.delete(1L);
+        assertThat(index.search("mouse", 10).getHits()).isEmpty();
+        assertThat(index.search("mosue", 10).getHits()).isEmpty();
+    }
+
+    @Test
+    void countsEveryMatchWhenAllAreRead() {
+        SearchResult result = index.search("mouse", 10);
+
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.isTotalExact()).isTrue();
+    }
+
+    @Test
+    void commonWordStopsOnceTheHitsAreSettled() {
+        List<ProductView> cables = new ArrayList<>();
+        for (long id = 10; id < 1010; id++) {
+            cables.add(product(id, "Cable " + id, "Spare part"));
+        }
+        // In name and description like the USB cable, so both rank above the others despite its id
+        cables.add(product(2000, "Cable deluxe", "The best cable"));
+        index.indexAll(cables);
+
+        SearchResult result = index.search("cable", 5);
+
+        assertThat(ids(result)).containsExactly(4L, 2000L, 10L, 11L, 12L);
+        assertThat(result.isTotalExact()).isFalse();
+        assertThat(result.getTotal()).isLessThan(cables.size());
+    }
+
+    @Test
+    void earlyTerminationKeepsTheSameTopHits() {
+        List<ProductView> products = new ArrayList<>();
+        for (long id = 10; id < 510; id++) {
+            // Vary which field each word is in, so scores differ between products
+            String name = id % 3 == 0 ? "Cable organiser " + id : "Organiser " + id;
+            String description = id % 7 == 0 ? "Fits any cable and cord" : "Holds a cord";
+            products.add(product(id, name, description));
+        }
+        index.indexAll(products);
+
+        List<SearchHit> all = index.search("organiser cable", 50).getHits();
+        for (int limit : new int[]{1, 3, 10, 25}) {
+            SearchResult limited = index.search("organiser cable", limit);
+            assertThat(ids(limited)).as("limit %d", limit).containsExactlyElementsOf(ids(all.subList(0, limit)));
+        }
+    }
+
+    private static ProductView product(long id, String name, String description) {
+        return new ProductView(id, name, description, 9.99, 10);
+    }
+
+    private static List<Long> ids(SearchResult result) {
+        return ids(result.getHits());
+    }
+
+    private static List<Long> ids(List<SearchHit> hits) {
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            ids.add(hit.getProduct().getId());
+        }
+        return ids;
+    }
+}